@@ -0,0 +1,49 @@
+package com.example.backend.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+
+// deterministic in-memory data shared by the benchmarks
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static List<User> users(int count) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			User user = new User();
+			user.setId((long) i);
+			user.setUsername("user-" + i);
+			user.setEmail("user-" + i + "@example.com");
+			users.add(user);
+		}
+		return users;
+	}
+
+	static Pin pin(int i, User user) {
+		Pin pin = new Pin();
+		pin.setId((long) i);
+		pin.setTitle("observation " + i);
+		pin.setDescription("water level report near the river crossing, reading " + i);
+		pin.setLatitude(-60 + (i * 7919 % 12000) / 100.0);
+		pin.setLongitude(-170 + (i * 104729 % 34000) / 100.0);
+		pin.setImageUrl(i % 3 == 0 ? "https://example.com/images/" + i + ".jpg" : null);
+		pin.setCommentCount(i % 17);
+		pin.setUser(user);
+		return pin;
+	}
+
+	static List<PinResponseDTO> pinDTOs(int count) {
+		List<User> users = users(1000);
+		List<PinResponseDTO> pins = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			pins.add(new PinResponseDTO(pin(i, users.get(i % users.size()))));
+		}
+		return pins;
+	}
+}
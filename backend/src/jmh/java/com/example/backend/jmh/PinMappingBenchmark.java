@@ -0,0 +1,85 @@
+package com.example.backend.jmh;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.Comment;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+
+// Entity to DTO mapping as done by PinService.createPin/updatePin and CommentService.addComment, over whole lists
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PinMappingBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	private List<Pin> pins;
+	private List<Comment> comments;
+
+	@Setup
+	public void setUp() {
+		List<User> users = Fixtures.users(1000);
+		pins = new ArrayList<>(count);
+		comments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Pin pin = Fixtures.pin(i, users.get(i % users.size()));
+			pins.add(pin);
+			Comment comment = new Comment();
+			comment.setId((long) i);
+			comment.setText("comment " + i);
+			comment.setUser(users.get((i * 7) % users.size()));
+			comment.setPin(pin);
+			comments.add(comment);
+		}
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> pinsFromEntities() {
+		return pins.stream().map(PinResponseDTO::new).toList();
+	}
+
+	@Benchmark
+	public List<CommentResponseDTO> commentsFromEntities() {
+		List<CommentResponseDTO> result = new ArrayList<>(comments.size());
+		for (Comment comment : comments) {
+			result.add(new CommentResponseDTO(comment.getId(), comment.getText(), comment.getUser().getId(),
+					comment.getUser().getUsername(), comment.getPin().getId(), comment.getCreatedAt()));
+		}
+		return result;
+	}
+
+	// the projection constructor the repository queries use, without any entity in between
+	@Benchmark
+	public List<PinResponseDTO> pinsFromProjection() {
+		List<PinResponseDTO> result = new ArrayList<>(pins.size());
+		Instant now = Instant.now();
+		for (Pin pin : pins) {
+			result.add(new PinResponseDTO(pin.getId(), pin.getTitle(), pin.getDescription(), pin.getLatitude(),
+					pin.getLongitude(), pin.getImageUrl(), pin.getUser().getId(), pin.getUser().getUsername(), now,
+					pin.getCommentCount()));
+		}
+		return result;
+	}
+}
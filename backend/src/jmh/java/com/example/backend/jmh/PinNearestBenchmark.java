@@ -0,0 +1,54 @@
+package com.example.backend.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.backend.DTOs.PinNearbyDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.spatial.PinSpatialIndex;
+
+// PinSpatialIndex.nearest (GET /pins/nearby) around random points, with pins spread uniformly between 60S and 60N
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PinNearestBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int count;
+
+	@Param({"1", "20", "200"})
+	public int k;
+
+	private final PinSpatialIndex index = new PinSpatialIndex(1.0);
+	private final Random random = new Random(1);
+
+	@Setup
+	public void setUp() {
+		Random pins = new Random(42);
+		for (int i = 0; i < count; i++) {
+			index.put(new PinResponseDTO((long) i, "pin " + i, null,
+					pins.nextDouble(-60, 60), pins.nextDouble(-180, 180), null, 1L, "user", null, 0));
+		}
+	}
+
+	@Benchmark
+	public List<PinNearbyDTO> nearest() {
+		return index.nearest(random.nextDouble(-60, 60), random.nextDouble(-180, 180), k, Double.POSITIVE_INFINITY);
+	}
+}
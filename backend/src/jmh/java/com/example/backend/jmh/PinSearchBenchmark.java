@@ -0,0 +1,87 @@
+package com.example.backend.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.search.PinSearchIndex;
+import com.example.backend.spatial.PinSpatialIndex;
+
+// PinSearchIndex queries over pins whose text is drawn from a skewed 5000-word vocabulary (w0 is the most common word):
+// a rare word, two common words, a short prefix, and a common word inside a 10x10 degree box
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PinSearchBenchmark {
+
+	private static final int VOCABULARY = 5000;
+
+	@Param({"100000", "1000000"})
+	public int count;
+
+	private final PinSearchIndex index = new PinSearchIndex();
+	private final PinSpatialIndex spatialIndex = new PinSpatialIndex(1.0);
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		for (int i = 0; i < count; i++) {
+			PinResponseDTO pin = new PinResponseDTO((long) i, text(random, 3), text(random, 12),
+					random.nextDouble(-60, 60), random.nextDouble(-180, 180), null, 1L, "user", null, 0);
+			index.pinSaved(pin);
+			spatialIndex.pinSaved(pin);
+		}
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> rareWord() {
+		return index.search("w4321", 20);
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> twoCommonWords() {
+		return index.search("w1 w2", 20);
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> prefix() {
+		return index.search("w12", 20);
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> commonWordInBox() {
+		return index.search("w3", 10, 120, 20, 130, 20);
+	}
+
+	// the plan PinService picks for the same query: the box's pins from the spatial index, then ranked one by one
+	@Benchmark
+	public List<PinResponseDTO> commonWordInBoxSpatialFirst() {
+		return index.searchAmong("w3", spatialIndex.query(10, 120, 20, 130), 20);
+	}
+
+	// word k is picked with probability roughly proportional to 1 / (k + 1)
+	private static String text(Random random, int words) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			int word = (int) Math.floor(Math.pow(VOCABULARY + 1, random.nextDouble())) - 1;
+			text.append('w').append(word).append(' ');
+		}
+		return text.toString();
+	}
+}
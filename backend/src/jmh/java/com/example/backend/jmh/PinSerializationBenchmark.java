@@ -0,0 +1,60 @@
+package com.example.backend.jmh;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.wire.PinColumnarCodec;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+// Jackson serialization of the pin list GET /pins returns, into a byte[] (PinListSnapshot) and into a stream (GET /pins/stream),
+// against the columnar binary form served for Accept: application/vnd.pins.columnar
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PinSerializationBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	public int count;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().build();
+	private List<PinResponseDTO> pins;
+
+	@Setup
+	public void setUp() {
+		pins = Fixtures.pinDTOs(count);
+	}
+
+	@Benchmark
+	public byte[] toBytes() {
+		return objectMapper.writeValueAsBytes(pins);
+	}
+
+	@Benchmark
+	public void toStream() {
+		objectMapper.writeValue(OutputStream.nullOutputStream(), pins);
+	}
+
+	@Benchmark
+	public byte[] toColumnar() {
+		return PinColumnarCodec.encode(pins);
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.backend.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.CommentService;
+import com.example.backend.services.PinService;
+
+// PinRepository/CommentRepository projection reads against in-memory H2, with the application context
+// started once per fork (no web server) and pins/comments created through the services
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryReadBenchmark {
+
+	@Param({"10000", "100000"})
+	public int pins;
+
+	private static final int COMMENTS_PER_PIN = 50;
+	private static final int PINS_WITH_COMMENTS = 20;
+
+	private ConfigurableApplicationContext context;
+	private PinRepository pinRepository;
+	private CommentRepository commentRepository;
+	private Long firstPinId;
+	private Long commentedPinId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(BackendApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+						"--spring.jpa.properties.hibernate.generate_statistics=false",
+						"--logging.level.root=WARN");
+		pinRepository = context.getBean(PinRepository.class);
+		commentRepository = context.getBean(CommentRepository.class);
+		PinService pinService = context.getBean(PinService.class);
+		CommentService commentService = context.getBean(CommentService.class);
+
+		User user = new User();
+		user.setUsername("jmh");
+		user.setEmail("jmh@example.com");
+		user.setPassword("secret");
+		Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+		List<Long> ids = new ArrayList<>();
+		for (int from = 0; from < pins; from += 1000) {
+			List<PinCreateDTO> batch = new ArrayList<>();
+			for (int i = from; i < Math.min(pins, from + 1000); i++) {
+				PinCreateDTO dto = new PinCreateDTO();
+				dto.setTitle("observation " + i);
+				dto.setDescription("water level report");
+				dto.setLatitude(-60 + (i * 7919 % 12000) / 100.0);
+				dto.setLongitude(-170 + (i * 104729 % 34000) / 100.0);
+				dto.setUserId(userId);
+				batch.add(dto);
+			}
+			pinService.createPins(batch).forEach(result -> ids.add(result.getPin().getId()));
+		}
+		firstPinId = ids.get(0);
+		for (int p = 0; p < PINS_WITH_COMMENTS; p++) {
+			for (int c = 0; c < COMMENTS_PER_PIN; c++) {
+				commentService.addComment("comment " + c, userId, ids.get(p));
+			}
+		}
+		commentedPinId = ids.get(0);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> findAllDTOs() {
+		return pinRepository.findAllDTOs();
+	}
+
+	@Benchmark
+	public List<PinResponseDTO> findDTOsAfterPage() {
+		return pinRepository.findDTOsAfter(firstPinId + pins / 2, Limit.of(1000));
+	}
+
+	@Benchmark
+	public PinResponseDTO findDTOById() {
+		return pinRepository.findDTOById(firstPinId + pins / 2).orElseThrow();
+	}
+
+	@Benchmark
+	public List<CommentResponseDTO> commentsByPin() {
+		return commentRepository.findDTOsByPinId(commentedPinId);
+	}
+
+	@Benchmark
+	public List<CommentResponseDTO> commentsByPinFirstPage() {
+		return commentRepository.findDTOsByPinId(commentedPinId, Limit.of(20));
+	}
+}
@@ -2,8 +2,14 @@ package com.example.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// @Async and @Scheduled run on Spring's task executor and scheduler, which use virtual threads
+// when spring.threads.virtual.enabled is set (like the web container)
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,17 @@
+package com.example.backend;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Read-through caches for pin popups. Size, TTL and stats recording are set by
+// spring.cache.caffeine.spec, hit/miss counts are published as the cache.gets metric
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    // PinResponseDTO by pin id
+    public static final String PINS = "pins";
+    // List<CommentResponseDTO> by pin id
+    public static final String PIN_COMMENTS = "pinComments";
+    // username by user id, for comment writes that only need to know the author exists
+    public static final String USERNAMES = "usernames";
+}
@@ -0,0 +1,34 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// DTO for one entry of the live change feed (GET /pins/events). type is one of the constants below,
+// pin is set for pin.created/pin.updated and comment for comment.created. latitude/longitude
+// are the pin's position when known, so clients filtering by area can place the event
+@Getter
+public class ChangeEventDTO {
+    public static final String PIN_CREATED = "pin.created";
+    public static final String PIN_UPDATED = "pin.updated";
+    public static final String PIN_DELETED = "pin.deleted";
+    public static final String COMMENT_CREATED = "comment.created";
+    public static final String COMMENT_DELETED = "comment.deleted";
+
+    private String type;
+    private Long pinId;
+    private Long commentId;
+    private Double latitude;
+    private Double longitude;
+    private PinResponseDTO pin;
+    private CommentResponseDTO comment;
+
+    public ChangeEventDTO(String type, Long pinId, Long commentId, Double latitude, Double longitude,
+                          PinResponseDTO pin, CommentResponseDTO comment) {
+        this.type = type;
+        this.pinId = pinId;
+        this.commentId = commentId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.pin = pin;
+        this.comment = comment;
+    }
+}
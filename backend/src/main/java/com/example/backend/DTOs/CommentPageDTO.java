@@ -0,0 +1,18 @@
+package com.example.backend.DTOs;
+
+import java.util.List;
+
+import lombok.Getter;
+
+// One page of a pin's comment thread, newest first. nextCursor is passed back as "before" to get
+// older comments and is null on the last page
+@Getter
+public class CommentPageDTO {
+    private List<CommentResponseDTO> comments;
+    private String nextCursor;
+
+    public CommentPageDTO(List<CommentResponseDTO> comments, String nextCursor) {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// Result for one item of POST /pins/batch. index is the item's position in the request,
+// and either pin (created) or error (rejected) is set
+@Getter
+public class PinBatchResultDTO {
+    private int index;
+    private boolean created;
+    private PinResponseDTO pin;
+    private String error;
+
+    public PinBatchResultDTO(int index, PinResponseDTO pin) {
+        this.index = index;
+        this.created = true;
+        this.pin = pin;
+    }
+
+    public PinBatchResultDTO(int index, String error) {
+        this.index = index;
+        this.created = false;
+        this.error = error;
+    }
+}
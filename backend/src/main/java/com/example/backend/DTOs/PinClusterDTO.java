@@ -0,0 +1,20 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// DTO for one marker cluster. latitude/longitude is the centroid of the pins in the cluster and
+// pinId is one of them, so the client can open it directly when count is 1
+@Getter
+public class PinClusterDTO {
+    private double latitude;
+    private double longitude;
+    private int count;
+    private Long pinId;
+
+    public PinClusterDTO(double latitude, double longitude, int count, Long pinId) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.pinId = pinId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// A record of an import file that was not imported. row counts records from 1 in file order
+@Getter
+public class PinImportErrorDTO {
+    private long row;
+    private String error;
+
+    public PinImportErrorDTO(long row, String error) {
+        this.row = row;
+        this.error = error;
+    }
+}
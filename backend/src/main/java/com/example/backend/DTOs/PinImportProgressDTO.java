@@ -0,0 +1,28 @@
+package com.example.backend.DTOs;
+
+import java.util.List;
+
+import lombok.Getter;
+
+// One line of the POST /pins/import response, written after each committed chunk. The counts are running totals,
+// errors only lists the records rejected in this chunk. The last line has done set, and failure set when the input
+// could not be read to the end; the chunks reported before it stay imported
+@Getter
+public class PinImportProgressDTO {
+    private long processed;
+    private long imported;
+    private long rejected;
+    private List<PinImportErrorDTO> errors;
+    private boolean done;
+    private String failure;
+
+    public PinImportProgressDTO(long processed, long imported, long rejected, List<PinImportErrorDTO> errors,
+                                boolean done, String failure) {
+        this.processed = processed;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.done = done;
+        this.failure = failure;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// One result of GET /pins/nearby: the pin and its great-circle distance from the query point in kilometres
+@Getter
+public class PinNearbyDTO {
+    private PinResponseDTO pin;
+    private double distanceKm;
+
+    public PinNearbyDTO(PinResponseDTO pin, double distanceKm) {
+        this.pin = pin;
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.backend.DTOs;
+
+import java.util.List;
+
+import lombok.Getter;
+
+// One page of a keyset-paginated pin listing. nextCursor is passed back as "after" to get the
+// next page and is null on the last page
+@Getter
+public class PinPageDTO {
+    private List<PinResponseDTO> pins;
+    private Long nextCursor;
+
+    public PinPageDTO(List<PinResponseDTO> pins, Long nextCursor) {
+        this.pins = pins;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.backend.DTOs;
 
 import java.time.Instant;
+import com.example.backend.images.ImageStore;
 import com.example.backend.models.Pin;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,6 +20,7 @@ public class PinResponseDTO {
     private Long userId;
     private String username;
     private Instant createdAt;
+    private int commentCount;
 
     public PinResponseDTO(Pin pin) {
         this.id = pin.getId();
@@ -30,5 +32,31 @@ public class PinResponseDTO {
         this.userId = pin.getUser().getId();
         this.username = pin.getUser().getUsername();
         this.createdAt = pin.getCreatedAt();
+        this.commentCount = pin.getCommentCount();
+    }
+
+    // used by the projection queries in PinRepository
+    public PinResponseDTO(Long id, String title, String description, double latitude, double longitude,
+                          String imageUrl, Long userId, String username, Instant createdAt, int commentCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.imageUrl = imageUrl;
+        this.userId = userId;
+        this.username = username;
+        this.createdAt = createdAt;
+        this.commentCount = commentCount;
+    }
+
+    // a copy with another comment count; instances that have been handed out are never changed in place
+    public PinResponseDTO withCommentCount(int commentCount) {
+        return new PinResponseDTO(id, title, description, latitude, longitude, imageUrl, userId, username, createdAt, commentCount);
+    }
+
+    // small version of an uploaded image for map popups; null when imageUrl is an external link
+    public String getThumbnailUrl() {
+        return ImageStore.thumbnailUrl(imageUrl);
     }
 }
@@ -23,4 +23,11 @@ public class UserResponseDTO {
                 .map(PinResponseDTO::new)
                 .toList();
     }
+
+    public UserResponseDTO(Long id, String username, String email, List<PinResponseDTO> pins) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.pins = pins;
+    }
 }
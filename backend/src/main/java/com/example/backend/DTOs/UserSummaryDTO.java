@@ -0,0 +1,18 @@
+package com.example.backend.DTOs;
+
+import lombok.Getter;
+
+// Lightweight user for listings: no email and no pins, only how many pins the user has.
+// The pins themselves are paged separately via GET /users/{id}/pins
+@Getter
+public class UserSummaryDTO {
+    private Long id;
+    private String username;
+    private long pinCount;
+
+    public UserSummaryDTO(Long id, String username, long pinCount) {
+        this.id = id;
+        this.username = username;
+        this.pinCount = pinCount;
+    }
+}
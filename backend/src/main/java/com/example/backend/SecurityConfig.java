@@ -51,7 +51,10 @@ public class SecurityConfig {
                 .requestMatchers("/users/register", "/users/login").permitAll()
                 .requestMatchers("/pins", "/pins/**").permitAll()
                 .requestMatchers("/comments", "/comments/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
+                // only health is public; metrics and caches (whose DELETE empties every cache) need a login
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
                 .anyRequest().authenticated()
             )
             .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable()));
@@ -0,0 +1,217 @@
+package com.example.backend.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.backend.DTOs.PinCreateDTO;
+
+// Reads RFC 4180 CSV: comma separated, fields optionally in double quotes, "" for a quote inside a quoted field,
+// and quoted fields may span lines. The first record is a header naming the columns in any order; latitude and
+// longitude are required, title, description, imageUrl and userId are optional. Blank lines are skipped
+public final class CsvPinReader implements PinReader {
+    public static final String MEDIA_TYPE = "text/csv";
+
+    // a record longer than this is taken as a broken file (most likely an unclosed quote) rather than buffered
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private static final List<String> COLUMNS = List.of("title", "description", "latitude", "longitude", "imageUrl", "userId");
+    private static final int TITLE = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int LATITUDE = 2;
+    private static final int LONGITUDE = 3;
+    private static final int IMAGE_URL = 4;
+    private static final int USER_ID = 5;
+
+    private final Reader reader;
+    private final Long defaultUserId;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final List<String> record = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private int recordChars;
+
+    // position of each of COLUMNS in a record, -1 when the header does not have it
+    private final int[] columns = new int[COLUMNS.size()];
+    private final int width;
+    private long number;
+
+    public CsvPinReader(Reader reader, Long defaultUserId) throws IOException {
+        this.reader = reader;
+        this.defaultUserId = defaultUserId;
+        if (!readRecord()) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < record.size(); i++) {
+            String name = record.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            int column = indexOfColumn(name);
+            if (column < 0) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name);
+            }
+            if (columns[column] >= 0) {
+                throw new IllegalArgumentException("CSV column appears twice: " + name);
+            }
+            columns[column] = i;
+        }
+        if (columns[LATITUDE] < 0 || columns[LONGITUDE] < 0) {
+            throw new IllegalArgumentException("CSV header must have latitude and longitude columns");
+        }
+        width = record.size();
+    }
+
+    @Override
+    public Row next() throws IOException {
+        while (readRecord()) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            number++;
+            return toRow();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row toRow() {
+        if (record.size() != width) {
+            return Row.rejected(number, "Record has " + record.size() + " fields, the header has " + width);
+        }
+        PinCreateDTO pin = new PinCreateDTO();
+        pin.setTitle(text(TITLE));
+        pin.setDescription(text(DESCRIPTION));
+        pin.setImageUrl(text(IMAGE_URL));
+
+        String latitude = text(LATITUDE);
+        String longitude = text(LONGITUDE);
+        if (latitude == null || longitude == null) {
+            return Row.rejected(number, "Latitude and longitude are required");
+        }
+        try {
+            pin.setLatitude(Double.parseDouble(latitude));
+            pin.setLongitude(Double.parseDouble(longitude));
+        } catch (NumberFormatException e) {
+            return Row.rejected(number, "Latitude and longitude must be numbers: " + latitude + ", " + longitude);
+        }
+
+        String userId = text(USER_ID);
+        if (userId == null) {
+            pin.setUserId(defaultUserId);
+        } else {
+            try {
+                pin.setUserId(Long.parseLong(userId));
+            } catch (NumberFormatException e) {
+                return Row.rejected(number, "userId must be a whole number: " + userId);
+            }
+        }
+        return Row.of(number, pin);
+    }
+
+    // the column's value with surrounding whitespace removed, or null when the column is absent or empty
+    private String text(int column) {
+        if (columns[column] < 0) {
+            return null;
+        }
+        String value = record.get(columns[column]).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    // fills record with the fields of the next record, false at the end of the input
+    private boolean readRecord() throws IOException {
+        record.clear();
+        field.setLength(0);
+        recordChars = 0;
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("CSV input ends inside a quoted field of record " + (number + 1));
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append(c);
+                }
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                record.add(field.toString());
+                return true;
+            } else if (c == ',') {
+                countChar();
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                append(c);
+            }
+            c = read();
+        }
+    }
+
+    private void append(int c) {
+        countChar();
+        field.append((char) c);
+    }
+
+    private void countChar() {
+        if (++recordChars > MAX_RECORD_CHARS) {
+            throw new IllegalArgumentException("CSV record " + (number + 1) + " is longer than " + MAX_RECORD_CHARS + " characters");
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static int indexOfColumn(String name) {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (COLUMNS.get(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
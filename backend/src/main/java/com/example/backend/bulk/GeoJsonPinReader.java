@@ -0,0 +1,114 @@
+package com.example.backend.bulk;
+
+import java.io.InputStream;
+
+import com.example.backend.DTOs.PinCreateDTO;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+// Reads the features of a GeoJSON FeatureCollection (or a bare array of features) with the streaming parser,
+// so only one feature is in memory at a time. Each feature needs a Point geometry; title, description, imageUrl
+// and userId are taken from its properties, which is also the shape GeoJsonPinWriter exports
+public final class GeoJsonPinReader implements PinReader {
+    public static final String MEDIA_TYPE = "application/geo+json";
+
+    private final ObjectReader featureReader;
+    private final JsonParser parser;
+    private final Long defaultUserId;
+    private long number;
+    private boolean done;
+
+    public GeoJsonPinReader(ObjectMapper objectMapper, InputStream in, Long defaultUserId) {
+        // the features follow one another in the array, so reading one must not insist the input ends after it
+        this.featureReader = objectMapper.reader().without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.parser = objectMapper.createParser(in);
+        this.defaultUserId = defaultUserId;
+        if (!findFeatures()) {
+            parser.close();
+            throw new IllegalArgumentException("GeoJSON input must be a FeatureCollection with a features array");
+        }
+    }
+
+    @Override
+    public Row next() {
+        if (done) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            done = true;
+            return null;
+        }
+        if (token == null) {
+            throw new IllegalArgumentException("GeoJSON input ends inside the features array");
+        }
+        number++;
+        JsonNode feature = featureReader.readTree(parser);
+        return toRow(feature);
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    // leaves the parser on the start of the features array; anything else in the collection is skipped
+    private boolean findFeatures() {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            if (name.equals("features") && token == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private Row toRow(JsonNode feature) {
+        if (!feature.isObject()) {
+            return Row.rejected(number, "Feature is not an object");
+        }
+        JsonNode geometry = feature.path("geometry");
+        JsonNode coordinates = geometry.path("coordinates");
+        if (!"Point".equals(geometry.path("type").asString(null)) || coordinates.size() < 2
+                || !coordinates.get(0).isNumber() || !coordinates.get(1).isNumber()) {
+            return Row.rejected(number, "Feature geometry must be a Point with [longitude, latitude] coordinates");
+        }
+
+        PinCreateDTO pin = new PinCreateDTO();
+        pin.setLongitude(coordinates.get(0).doubleValue());
+        pin.setLatitude(coordinates.get(1).doubleValue());
+        JsonNode properties = feature.path("properties");
+        pin.setTitle(text(properties, "title"));
+        pin.setDescription(text(properties, "description"));
+        pin.setImageUrl(text(properties, "imageUrl"));
+
+        JsonNode userId = properties.path("userId");
+        if (userId.isMissingNode() || userId.isNull()) {
+            pin.setUserId(defaultUserId);
+        } else if (userId.isIntegralNumber() && userId.canConvertToLong()) {
+            pin.setUserId(userId.longValue());
+        } else {
+            return Row.rejected(number, "userId must be a whole number: " + userId);
+        }
+        return Row.of(number, pin);
+    }
+
+    private static String text(JsonNode properties, String name) {
+        JsonNode value = properties.path(name);
+        return value.isValueNode() && !value.isNull() ? value.asString() : null;
+    }
+}
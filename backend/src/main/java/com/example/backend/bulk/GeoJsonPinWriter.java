@@ -0,0 +1,52 @@
+package com.example.backend.bulk;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+import tools.jackson.core.JsonGenerator;
+
+// Writes pins as a GeoJSON FeatureCollection of points, one feature per write, straight to the generator.
+// close() ends the collection and closes the generator
+public final class GeoJsonPinWriter implements AutoCloseable {
+    private final JsonGenerator generator;
+
+    public GeoJsonPinWriter(JsonGenerator generator) {
+        this.generator = generator;
+        generator.writeStartObject();
+        generator.writeStringProperty("type", "FeatureCollection");
+        generator.writeName("features");
+        generator.writeStartArray();
+    }
+
+    public void write(PinResponseDTO pin) {
+        generator.writeStartObject();
+        generator.writeStringProperty("type", "Feature");
+        generator.writeNumberProperty("id", pin.getId());
+        generator.writeName("geometry");
+        generator.writeStartObject();
+        generator.writeStringProperty("type", "Point");
+        generator.writeName("coordinates");
+        generator.writeStartArray();
+        generator.writeNumber(pin.getLongitude());
+        generator.writeNumber(pin.getLatitude());
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeName("properties");
+        generator.writeStartObject();
+        generator.writeStringProperty("title", pin.getTitle());
+        generator.writeStringProperty("description", pin.getDescription());
+        generator.writeStringProperty("imageUrl", pin.getImageUrl());
+        generator.writeNumberProperty("userId", pin.getUserId());
+        generator.writeStringProperty("username", pin.getUsername());
+        generator.writePOJOProperty("createdAt", pin.getCreatedAt());
+        generator.writeNumberProperty("commentCount", pin.getCommentCount());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+}
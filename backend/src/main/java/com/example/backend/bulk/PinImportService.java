@@ -0,0 +1,126 @@
+package com.example.backend.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.DTOs.PinBatchResultDTO;
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinImportErrorDTO;
+import com.example.backend.DTOs.PinImportProgressDTO;
+import com.example.backend.services.PinService;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+// Imports pins from a CSV or GeoJSON stream while it is being read. Records are collected into chunks of
+// pins.import.chunk-size and each chunk goes through PinService.createPins, which validates it and inserts it as
+// JDBC batches in one transaction, so memory use depends on the chunk size and not on the size of the file
+@Service
+public class PinImportService {
+
+    // called after each committed chunk and once more at the end
+    public interface ProgressListener {
+        void progress(PinImportProgressDTO progress) throws IOException;
+    }
+
+    private final PinService pinService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public PinImportService(PinService pinService, EntityManager entityManager, ObjectMapper objectMapper,
+                            @Value("${pins.import.chunk-size:1000}") int chunkSize,
+                            @Value("${pins.batch.max-size:1000}") int maxBatchSize) {
+        if (chunkSize < 1 || chunkSize > maxBatchSize) {
+            throw new IllegalArgumentException("pins.import.chunk-size must be between 1 and pins.batch.max-size (" + maxBatchSize + "): " + chunkSize);
+        }
+        this.pinService = pinService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    // text/csv is read as CSV, application/geo+json and application/json as GeoJSON.
+    // defaultUserId is used for records that do not name a user
+    public PinReader open(MediaType contentType, InputStream body, Long defaultUserId) throws IOException {
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(CsvPinReader.MEDIA_TYPE))) {
+            Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+            return new CsvPinReader(new InputStreamReader(body, charset), defaultUserId);
+        }
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(GeoJsonPinReader.MEDIA_TYPE))
+                || contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return new GeoJsonPinReader(objectMapper, body, defaultUserId);
+        }
+        throw new IllegalArgumentException("Cannot import " + contentType + ", send text/csv or application/geo+json");
+    }
+
+    // input that breaks off (bad CSV quoting, malformed JSON) ends the import once the records read before it
+    // are inserted, and the returned summary carries the reason
+    public PinImportProgressDTO importPins(PinReader reader, ProgressListener listener) throws IOException {
+        List<PinCreateDTO> pins = new ArrayList<>(chunkSize);
+        List<Long> rows = new ArrayList<>(chunkSize);
+        List<PinImportErrorDTO> errors = new ArrayList<>();
+        long processed = 0;
+        long imported = 0;
+        long rejected = 0;
+        String failure = null;
+        try {
+            PinReader.Row row;
+            while ((row = reader.next()) != null) {
+                processed++;
+                if (row.error() != null) {
+                    errors.add(new PinImportErrorDTO(row.number(), row.error()));
+                } else {
+                    pins.add(row.pin());
+                    rows.add(row.number());
+                }
+                if (pins.size() + errors.size() == chunkSize) {
+                    imported += insert(pins, rows, errors);
+                    rejected += errors.size();
+                    listener.progress(new PinImportProgressDTO(processed, imported, rejected, List.copyOf(errors), false, null));
+                    pins.clear();
+                    rows.clear();
+                    errors.clear();
+                }
+            }
+        } catch (IllegalArgumentException | JacksonException e) {
+            failure = e.getMessage();
+        }
+        imported += insert(pins, rows, errors);
+        rejected += errors.size();
+        PinImportProgressDTO summary = new PinImportProgressDTO(processed, imported, rejected, List.copyOf(errors), true, failure);
+        listener.progress(summary);
+        return summary;
+    }
+
+    // adds the records createPins rejected to errors and returns how many were created
+    private int insert(List<PinCreateDTO> pins, List<Long> rows, List<PinImportErrorDTO> errors) {
+        if (pins.isEmpty()) {
+            return 0;
+        }
+        int created = 0;
+        for (PinBatchResultDTO result : pinService.createPins(pins)) {
+            if (result.isCreated()) {
+                created++;
+            } else {
+                errors.add(new PinImportErrorDTO(rows.get(result.getIndex()), result.getError()));
+            }
+        }
+        errors.sort(Comparator.comparingLong(PinImportErrorDTO::getRow));
+        // with open-in-view the request's EntityManager would keep every imported pin managed, so each flush
+        // would walk all earlier chunks and memory would grow with the file
+        entityManager.clear();
+        return created;
+    }
+}
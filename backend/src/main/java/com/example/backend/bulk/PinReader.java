@@ -0,0 +1,26 @@
+package com.example.backend.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.example.backend.DTOs.PinCreateDTO;
+
+// Reads pins one record at a time from an import file. A record that cannot be turned into a pin comes back
+// with an error instead of failing the import; input that cannot be read any further throws
+public interface PinReader extends Closeable {
+
+    // the next record, or null at the end of the input
+    Row next() throws IOException;
+
+    // number counts records from 1, in file order. Exactly one of pin and error is set
+    record Row(long number, PinCreateDTO pin, String error) {
+
+        static Row of(long number, PinCreateDTO pin) {
+            return new Row(number, pin, null);
+        }
+
+        static Row rejected(long number, String error) {
+            return new Row(number, null, error);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backend.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.services.PinChangeListener;
+import com.example.backend.wire.PinColumnarCodec;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Serialized copy of the full pin list. Every pin write (and comment count change) bumps the version, the bytes are only rebuilt
+// by the next read after that, and until then every GET /pins is answered from the same immutable arrays.
+// The same rebuild also writes the columnar binary form (PinColumnarCodec) for clients that ask for it.
+// The ETag is the process epoch plus the version, so it is never reused for different data after a restart
+@Component
+@Order(PinChangeListener.VIEW_ORDER)
+public class PinListSnapshot implements PinChangeListener {
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public PinListSnapshot(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public record Snapshot(long version, String etag, byte[] json, byte[] gzip, byte[] columnar) {
+        public String gzipETag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        public String columnarETag() {
+            return etag.substring(0, etag.length() - 1) + "-columnar\"";
+        }
+    }
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void pinsDeleted(Collection<PinResponseDTO> pins) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void commentCountChanged(Long pinId, int delta) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void clear() {
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // returns the snapshot for the current version, building it with the loader if the pins changed since the last one
+    public Snapshot current(Supplier<List<PinResponseDTO>> loader) {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            // read the version before loading: a write that lands during the load leaves this
+            // snapshot one version behind, and the next read rebuilds it
+            long loadedVersion = version.get();
+            if (current != null && current.version() == loadedVersion) {
+                return current;
+            }
+            List<PinResponseDTO> pins = loader.get();
+            byte[] json = objectMapper.writeValueAsBytes(pins);
+            current = new Snapshot(loadedVersion, "\"" + epoch + "-" + loadedVersion + "\"", json, gzip(json),
+                    PinColumnarCodec.encode(pins));
+            snapshot = current;
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.backend.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.DTOs.PinClusterDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.services.PinChangeListener;
+import com.example.backend.spatial.MvtEncoder;
+import com.example.backend.spatial.PinClusterIndex;
+import com.example.backend.spatial.PinSpatialIndex;
+import com.example.backend.spatial.WebMercator;
+
+// Encoded vector tiles for GET /pins/tiles/{z}/{x}/{y}.mvt, kept in an LRU map bounded by total bytes.
+// A tile is built from the in-memory indexes: the "pins" layer has one point per pin (id and title), or, when
+// the tile holds more than pins.tiles.max-points pins, a "clusters" layer taken from PinClusterIndex a few levels
+// below the tile. A pin write drops just the tiles containing the pin's old and new position on each zoom level.
+// It is the last PinChangeListener: by the time a tile is dropped the indexes already hold the write, so neither the
+// next build nor one that raced with the write can cache the old state
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PinTileCache implements PinChangeListener {
+    public static final String CONTENT_TYPE = "application/vnd.mapbox-vector-tile";
+
+    // clusters come from the cluster level with 2^(CLUSTER_BITS) cells per tile side, about 16px on a 512px tile
+    private static final int CLUSTER_BITS = 5;
+
+    private final PinSpatialIndex spatialIndex;
+    private final PinClusterIndex clusterIndex;
+    private final int maxZoom;
+    private final int maxPoints;
+    private final long maxBytes;
+
+    private final Map<Long, byte[]> tiles = new LinkedHashMap<>(1024, 0.75f, true);
+    // last position of every pin, the spatial index only knows the new one when a moved pin reaches this listener
+    private final Map<Long, double[]> positions = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // bumped by every invalidation, so a tile built from data older than the last write is not cached
+    private final AtomicLong version = new AtomicLong();
+    private long bytes;
+
+    public PinTileCache(PinSpatialIndex spatialIndex, PinClusterIndex clusterIndex,
+                        @Value("${pins.tiles.max-zoom:22}") int maxZoom,
+                        @Value("${pins.tiles.max-points:4096}") int maxPoints,
+                        @Value("${pins.tiles.cache-max-bytes:67108864}") long maxBytes) {
+        if (maxZoom < 0 || maxZoom > 29) {
+            throw new IllegalArgumentException("pins.tiles.max-zoom must be between 0 and 29: " + maxZoom);
+        }
+        this.spatialIndex = spatialIndex;
+        this.clusterIndex = clusterIndex;
+        this.maxZoom = maxZoom;
+        this.maxPoints = maxPoints;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            double[] previous = positions.put(pin.getId(), new double[] {pin.getLatitude(), pin.getLongitude()});
+            if (previous != null) {
+                removeTiles(previous[0], previous[1]);
+            }
+            removeTiles(pin.getLatitude(), pin.getLongitude());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        pinsDeleted(List.of(pin));
+    }
+
+    @Override
+    public void pinsDeleted(Collection<PinResponseDTO> pins) {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            for (PinResponseDTO pin : pins) {
+                positions.remove(pin.getId());
+                removeTiles(pin.getLatitude(), pin.getLongitude());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            tiles.clear();
+            positions.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] tile(int z, int x, int y) {
+        if (z < 0 || z > maxZoom) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + maxZoom + ": " + z);
+        }
+        if (x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            throw new IllegalArgumentException("No tile " + x + "/" + y + " at zoom " + z);
+        }
+        long key = key(z, x, y);
+        lock.lock();
+        try {
+            byte[] cached = tiles.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long builtFrom = version.get();
+        byte[] tile = build(z, x, y);
+        lock.lock();
+        try {
+            if (version.get() == builtFrom && tiles.putIfAbsent(key, tile) == null) {
+                bytes += tile.length;
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return tile;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return tiles.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] build(int z, int x, int y) {
+        MvtEncoder encoder = new MvtEncoder(z, x, y);
+        int count = clusterIndex.countInTile(z, x, y);
+        int clusterLevel = Math.min(z + CLUSTER_BITS - clusterIndex.getCellBits(), clusterIndex.getMaxZoom());
+        if (count > maxPoints && clusterLevel + clusterIndex.getCellBits() > z) {
+            MvtEncoder.Layer layer = encoder.layer("clusters");
+            for (PinClusterDTO cluster : clusterIndex.queryTile(z, x, y, clusterLevel)) {
+                Map<String, Object> attributes = new LinkedHashMap<>();
+                attributes.put("count", cluster.getCount());
+                attributes.put("pinId", cluster.getPinId());
+                layer.point(null, cluster.getLatitude(), cluster.getLongitude(), attributes);
+            }
+            return encoder.encode();
+        }
+
+        MvtEncoder.Layer layer = encoder.layer("pins");
+        for (PinResponseDTO pin : pinsInTile(z, x, y)) {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("title", pin.getTitle());
+            layer.point(pin.getId(), pin.getLatitude(), pin.getLongitude(), attributes);
+        }
+        return encoder.encode();
+    }
+
+    // the spatial index works in lat/lon, so query the tile's bounds and keep the pins whose tile is exactly this one
+    private List<PinResponseDTO> pinsInTile(int z, int x, int y) {
+        int last = (1 << z) - 1;
+        double maxLat = y == 0 ? 90 : WebMercator.latitudeOfRow(y, z);
+        double minLat = y == last ? -90 : WebMercator.latitudeOfRow(y + 1, z);
+        double minLon = WebMercator.longitudeOfColumn(x, z);
+        double maxLon = WebMercator.longitudeOfColumn(x + 1, z);
+        return spatialIndex.query(minLat, minLon, maxLat, maxLon).stream()
+                .filter(pin -> WebMercator.cellX(pin.getLongitude(), z) == x && WebMercator.cellY(pin.getLatitude(), z) == y)
+                .toList();
+    }
+
+    // caller holds the lock
+    private void removeTiles(double latitude, double longitude) {
+        for (int z = 0; z <= maxZoom; z++) {
+            byte[] removed = tiles.remove(key(z, WebMercator.cellX(longitude, z), WebMercator.cellY(latitude, z)));
+            if (removed != null) {
+                bytes -= removed.length;
+            }
+        }
+    }
+
+    private void evict() {
+        var eldest = tiles.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private static long key(int z, int x, int y) {
+        return (long) z << 58 | (long) x << 29 | y;
+    }
+}
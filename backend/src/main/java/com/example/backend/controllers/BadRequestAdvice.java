@@ -0,0 +1,20 @@
+package com.example.backend.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Invalid client input (a limit out of range, a bad bbox, cursor or tile address, an unparsable number) is
+// reported by the services and parsers with IllegalArgumentException; NumberFormatException is one too.
+// They are answered here with 400 and the exception's message instead of falling through to a 500
+@RestControllerAdvice
+public class BadRequestAdvice {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail badRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -2,30 +2,40 @@ package com.example.backend.controllers;
 
 import java.util.List;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.backend.DTOs.CommentCreateDTO;
+import com.example.backend.DTOs.CommentPageDTO;
 import com.example.backend.DTOs.CommentResponseDTO;
 import com.example.backend.services.CommentService;
+import com.example.backend.services.CommentWriteBehind;
 
 @RequestMapping("/comments")
 @RestController
 public class CommentController {
     private final CommentService commentService;
+    private final CommentWriteBehind commentWriteBehind;
 
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService, CommentWriteBehind commentWriteBehind) {
         this.commentService = commentService;
+        this.commentWriteBehind = commentWriteBehind;
     }
     
+    // with comments.write-behind.enabled the comment is only queued: 202, and the returned comment has no id yet
     @PostMapping("/add")
-    public CommentResponseDTO addComment(@RequestBody CommentCreateDTO dto) {
-        return commentService.addComment(dto.getText(), dto.getUserId(), dto.getPinId());
+    public ResponseEntity<CommentResponseDTO> addComment(@RequestBody CommentCreateDTO dto) {
+        if (commentWriteBehind.isEnabled()) {
+            return ResponseEntity.accepted().body(commentWriteBehind.submit(dto.getText(), dto.getUserId(), dto.getPinId()));
+        }
+        return ResponseEntity.ok(commentService.addComment(dto.getText(), dto.getUserId(), dto.getPinId()));
     }
 
     @GetMapping("/pins/{pinId}")
@@ -33,6 +43,13 @@ public class CommentController {
         return commentService.findCommentsByPinId(pinId);
     }
 
+    // paged thread, newest first: pass nextCursor back as before until it is null
+    @GetMapping(value = "/pins/{pinId}", params = "limit")
+    public CommentPageDTO getCommentPageForPin(@PathVariable Long pinId, @RequestParam(required = false) String before,
+                                               @RequestParam int limit) {
+        return commentService.findCommentPage(pinId, before, limit);
+    }
+
     @DeleteMapping("/{commentId}")
     public void deleteComment(@PathVariable Long commentId) {
         commentService.deleteComment(commentId);
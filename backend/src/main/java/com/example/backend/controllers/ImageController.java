@@ -0,0 +1,133 @@
+package com.example.backend.controllers;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.backend.images.ImageStore;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Serves uploaded images and their thumbnails. File names carry the content hash, so responses are cacheable
+// for a year as immutable and the hash doubles as the ETag. Single byte ranges are honoured (206/416).
+// Bodies of SENDFILE_MIN_BYTES and more are not copied through the JVM, Tomcat sends them with sendfile;
+// smaller ones, and everything on containers without sendfile, are written with FileChannel.transferTo
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    // below this a plain write is as cheap as setting up sendfile (Tomcat's DefaultServlet uses the same default)
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    // request attributes of Tomcat's sendfile support, see org.apache.coyote.Constants
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStore imageStore;
+
+    public ImageController(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    // a thumbnail that is not written yet is answered with the original, uncached, and queued again
+    @GetMapping("/{name}")
+    public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageStore.StoredImage image = imageStore.find(name);
+        boolean immutable = image != null;
+        if (image == null) {
+            image = imageStore.originalForThumbnail(name);
+        }
+        if (image == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found: " + name);
+        }
+
+        String etag = "\"" + image.name() + "\"";
+        response.setContentType(image.contentType());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (immutable) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+            if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+        } else {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+
+        long length = Files.size(image.path());
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = singleRange(request, etag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        if (!"HEAD".equals(request.getMethod())) {
+            send(image.path(), start, end, request, response);
+        }
+    }
+
+    // the requested range, or null to send the whole file: without a Range header, when If-Range names another
+    // version, or for several ranges at once, which a server may answer in full
+    private static HttpRange singleRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null || (ifRange != null && !ifRange.equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void send(Path path, long start, long end, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long count = end - start + 1;
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    throw new IOException("Image file ended early: " + path.getFileName());
+                }
+                position += sent;
+            }
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.backend.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,13 +17,36 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.backend.DTOs.PinBatchResultDTO;
+import com.example.backend.DTOs.PinClusterDTO;
 import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinNearbyDTO;
+import com.example.backend.DTOs.PinPageDTO;
 import com.example.backend.DTOs.PinResponseDTO;
 import com.example.backend.DTOs.PinUpdateDTO;
+import com.example.backend.bulk.CsvPinReader;
+import com.example.backend.bulk.GeoJsonPinReader;
+import com.example.backend.bulk.GeoJsonPinWriter;
+import com.example.backend.bulk.PinImportService;
+import com.example.backend.bulk.PinReader;
+import com.example.backend.cache.PinListSnapshot;
+import com.example.backend.cache.PinTileCache;
+import com.example.backend.services.ChangeFeedService;
 import com.example.backend.services.PinService;
+import com.example.backend.wire.PinColumnarCodec;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
 
 @RestController
@@ -23,8 +54,16 @@ import com.example.backend.services.PinService;
 public class PinController {
 
     private final PinService pinService;
-    public PinController(PinService pinService) {
+    private final ChangeFeedService changeFeedService;
+    private final PinImportService pinImportService;
+    private final ObjectMapper objectMapper;
+
+    public PinController(PinService pinService, ChangeFeedService changeFeedService, PinImportService pinImportService,
+                         ObjectMapper objectMapper) {
         this.pinService = pinService;
+        this.changeFeedService = changeFeedService;
+        this.pinImportService = pinImportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/create")
@@ -32,9 +71,146 @@ public class PinController {
         return pinService.createPin(dto);
     }
 
+    // one result per item, in request order
+    @PostMapping("/batch")
+    public List<PinBatchResultDTO> createPins(@RequestBody List<PinCreateDTO> dtos) {
+        return pinService.createPins(dtos);
+    }
+
+    // served from a prebuilt snapshot. An unchanged list is answered with 304 from the ETag alone,
+    // gzip-capable clients get the precompressed bytes, and clients that name the columnar type in Accept
+    // get the binary form. Anything else, including */*, gets JSON. Every variant has its own ETag, and Vary
+    // on both responses keeps shared caches from mixing them up
     @GetMapping
-    public List<PinResponseDTO> getAllPins() {
-        return pinService.getAllPins();
+    public ResponseEntity<byte[]> getAllPins(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        PinListSnapshot.Snapshot snapshot = pinService.getAllPinsSnapshot();
+        boolean columnar = accept != null && accept.contains(PinColumnarCodec.MEDIA_TYPE);
+        boolean gzip = !columnar && acceptsGzip(acceptEncoding);
+        String etag = columnar ? snapshot.columnarETag() : gzip ? snapshot.gzipETag() : snapshot.etag();
+
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT);
+        if (columnar) {
+            return response.contentType(MediaType.parseMediaType(PinColumnarCodec.MEDIA_TYPE)).body(snapshot.columnar());
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    // keyset pagination, follow nextCursor until it is null
+    @GetMapping(params = "limit")
+    public PinPageDTO getPinPage(@RequestParam(required = false) Long after, @RequestParam int limit) {
+        return pinService.getPinPage(after, limit);
+    }
+
+    // same JSON array as GET /pins, but written while the rows are read so memory stays flat
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAllPins() {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                pinService.forEachPin(generator::writePOJO);
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    // CSV with a header row or a GeoJSON FeatureCollection of points, imported while the body is read. Each committed
+    // chunk is reported as one NDJSON line, see PinImportProgressDTO. userId is used for records that name no user.
+    // Written directly rather than as StreamingResponseBody so a long import is not cut off by the async timeout
+    @PostMapping(value = "/import", consumes = {CsvPinReader.MEDIA_TYPE, GeoJsonPinReader.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importPins(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                           @RequestParam(required = false) Long userId,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (PinReader reader = pinImportService.open(contentType, request.getInputStream(), userId)) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            pinImportService.importPins(reader, progress -> {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            });
+        }
+    }
+
+    // every pin as a GeoJSON FeatureCollection, written from a database cursor; POST /pins/import reads it back
+    @GetMapping(value = "/export", produces = GeoJsonPinReader.MEDIA_TYPE)
+    public void exportPins(HttpServletResponse response) throws IOException {
+        response.setContentType(GeoJsonPinReader.MEDIA_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pins.geojson\"");
+        try (GeoJsonPinWriter writer = new GeoJsonPinWriter(objectMapper.createGenerator(response.getOutputStream()))) {
+            pinService.forEachPin(writer::write);
+        }
+    }
+
+    // viewport query, a box with minLon > maxLon crosses the antimeridian
+    @GetMapping(params = {"minLat", "minLon", "maxLat", "maxLon"})
+    public List<PinResponseDTO> getPinsInViewport(@RequestParam double minLat, @RequestParam double minLon,
+                                                  @RequestParam double maxLat, @RequestParam double maxLon) {
+        return pinService.getPinsInViewport(minLat, minLon, maxLat, maxLon);
+    }
+
+    // live pin/comment changes as Server-Sent Events, optionally only for one pin or one area
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents(@RequestParam(required = false) Long pinId,
+                                        @RequestParam(required = false) Double minLat, @RequestParam(required = false) Double minLon,
+                                        @RequestParam(required = false) Double maxLat, @RequestParam(required = false) Double maxLon) {
+        return changeFeedService.subscribe(new ChangeFeedService.Filter(pinId, minLat, minLon, maxLat, maxLon));
+    }
+
+    // bbox is minLon,minLat,maxLon,maxLat (west,south,east,north)
+    @GetMapping("/clusters")
+    public List<PinClusterDTO> getClusters(@RequestParam int zoom, @RequestParam String bbox) {
+        double[] box = parseBbox(bbox);
+        return pinService.getClusters(zoom, box[1], box[0], box[3], box[2]);
+    }
+
+    // the k closest pins to lat/lon with their great-circle distance, nearest first
+    @GetMapping("/nearby")
+    public List<PinNearbyDTO> getNearbyPins(@RequestParam double lat, @RequestParam double lon,
+                                            @RequestParam(defaultValue = "20") int k, @RequestParam(required = false) Double maxKm) {
+        return pinService.getNearbyPins(lat, lon, k, maxKm);
+    }
+
+    // keyword search over titles and descriptions, optionally inside a bbox (same format as /clusters)
+    @GetMapping("/search")
+    public List<PinResponseDTO> searchPins(@RequestParam String q, @RequestParam(required = false) String bbox,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        if (bbox == null) {
+            return pinService.searchPins(q, limit);
+        }
+        double[] box = parseBbox(bbox);
+        return pinService.searchPins(q, box[1], box[0], box[3], box[2], limit);
+    }
+
+    // Mapbox vector tile with a "pins" point layer, or a "clusters" layer where a tile holds too many pins
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = PinTileCache.CONTENT_TYPE)
+    public byte[] getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        return pinService.getTile(z, x, y);
+    }
+
+    // multipart upload in the "file" part (JPEG, PNG or GIF); the pin's imageUrl then points at the stored
+    // original and thumbnailUrl at its thumbnail, see ImageController
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public PinResponseDTO uploadImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream image = file.getInputStream()) {
+            return pinService.attachImage(id, image);
+        }
     }
 
     @GetMapping("/{id}")
@@ -42,6 +218,7 @@ public class PinController {
         return pinService.getPinById(id);
     }
 
+    // JSON, or the columnar binary form for Accept: application/vnd.pins.columnar (PinColumnarHttpMessageConverter)
     @GetMapping("/user/{userId}")
     public List<PinResponseDTO> getPinByUserId(@PathVariable Long userId) {
         return pinService.getPinByUserId(userId);
@@ -57,4 +234,51 @@ public class PinController {
         pinService.deletePin(id);
         return ResponseEntity.ok().build();
     }
+
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be four numbers minLon,minLat,maxLon,maxLat: " + bbox);
+        }
+        return box;
+    }
+
+    // gzip when Accept-Encoding lists it, or *, with a q above 0. An explicit gzip entry wins over *, so
+    // "*, gzip;q=0" and "gzip;q=0" both mean plain bytes
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        accepted = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.backend.controllers;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -7,10 +8,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.backend.DTOs.PinResponseDTO;
 import com.example.backend.DTOs.UserCreateRequestDTO;
 import com.example.backend.DTOs.UserResponseDTO;
+import com.example.backend.DTOs.UserSummaryDTO;
 import com.example.backend.services.UserService;
 
 @RequestMapping("/users")
@@ -27,9 +31,11 @@ public class UserController {
        return userService.createUser(dto);
     }
 
+    // paged summaries (id, username, pinCount), a page shorter than size is the last one
     @GetMapping
-    public java.util.List<UserResponseDTO> getAllUsers() {
-        return userService.getAllUsers();
+    public java.util.List<UserSummaryDTO> getAllUsers(@RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        return userService.getAllUsers(page, size);
     }
 
     @GetMapping("/{id}")
@@ -37,9 +43,16 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    @GetMapping("/{id}/pins")
+    public java.util.List<PinResponseDTO> getUserPins(@PathVariable Long id, @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        return userService.getUserPins(id, page, size);
+    }
+
 
+    // async so the request thread is released while the password is checked
     @PostMapping("/login")
-    public UserResponseDTO login(@RequestBody UserCreateRequestDTO dto) {
+    public java.util.concurrent.CompletableFuture<UserResponseDTO> login(@RequestBody UserCreateRequestDTO dto) {
         return userService.validateLogin(dto.getUsernameOrEmail(), dto.getPassword());
     }
     @PutMapping("/{id}")
@@ -47,8 +60,14 @@ public class UserController {
         return userService.updateUser(id, dto);
     }
 
+    // async=true answers 202 right away and deletes in the background, for users with very many pins
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            userService.deleteUserInBackground(id);
+            return ResponseEntity.accepted().build();
+        }
         userService.deleteUser(id);
+        return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,305 @@
+package com.example.backend.images;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Uploaded pin images on local disk under pins.images.dir, named by the SHA-256 of their content, so a file
+// never changes once written and identical uploads share one file. Thumbnails (JPEG, fitted into
+// pins.images.thumbnail-size pixels) are made in the background on a bounded pool; when that pool's queue is full
+// the thumbnail is made later, the first time it is asked for
+@Component
+public class ImageStore {
+    public static final String URL_PREFIX = "/images/";
+    private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})(-thumb)?\\.(jpg|png|gif)");
+    private static final String THUMBNAIL_SUFFIX = "-thumb.jpg";
+
+    // an image file in the store; name is what goes after URL_PREFIX
+    public record StoredImage(String name, String hash, boolean thumbnail, String contentType, Path path) {
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxPixels;
+    private final int thumbnailSize;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Counter thumbnails;
+    private final Counter deferred;
+
+    public ImageStore(MeterRegistry meterRegistry,
+                      @Value("${pins.images.dir:data/images}") Path directory,
+                      @Value("${pins.images.max-bytes:10485760}") long maxBytes,
+                      @Value("${pins.images.max-pixels:50000000}") long maxPixels,
+                      @Value("${pins.images.thumbnail-size:256}") int thumbnailSize,
+                      @Value("${pins.images.thumbnail-threads:1}") int threads,
+                      @Value("${pins.images.thumbnail-queue-capacity:256}") int queueCapacity) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+        this.thumbnailSize = thumbnailSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-thumbnailer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.thumbnails = Counter.builder("pins.images.thumbnails")
+                .description("Thumbnails written")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("pins.images.thumbnails.deferred")
+                .description("Thumbnails left for later because the thumbnail queue was full")
+                .register(meterRegistry);
+        Gauge.builder("pins.images.thumbnails.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Thumbnails waiting for a thumbnailer thread")
+                .register(meterRegistry);
+    }
+
+    // the thumbnail URL for an image URL handed out by store, null for any other (external) image URL
+    public static String thumbnailUrl(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        Matcher matcher = FILE_NAME.matcher(imageUrl.substring(URL_PREFIX.length()));
+        return matcher.matches() && matcher.group(2) == null ? URL_PREFIX + matcher.group(1) + THUMBNAIL_SUFFIX : null;
+    }
+
+    // copies the upload to disk while hashing it and returns the URL of the original.
+    // Only JPEG, PNG and GIF are accepted, recognised by their leading bytes rather than the declared type
+    public String store(InputStream upload) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            long size;
+            try (InputStream in = new DigestInputStream(upload, digest); OutputStream out = Files.newOutputStream(temp)) {
+                size = copy(in, out);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("The image is empty");
+            }
+            String extension = extension(temp);
+            if (extension == null) {
+                throw new IllegalArgumentException("Only JPEG, PNG and GIF images can be uploaded");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path original = directory.resolve(hash + "." + extension);
+            if (Files.exists(original)) {
+                Files.delete(temp);
+            } else {
+                Files.move(temp, original, StandardCopyOption.ATOMIC_MOVE);
+            }
+            scheduleThumbnail(hash, original);
+            return URL_PREFIX + original.getFileName();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // the stored file for a name under URL_PREFIX, or null when there is no such file (yet)
+    public StoredImage find(String name) {
+        Matcher matcher = FILE_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        boolean thumbnail = matcher.group(2) != null;
+        if (thumbnail && !matcher.group(3).equals("jpg")) {
+            return null;
+        }
+        Path path = directory.resolve(name);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        String contentType = switch (matcher.group(3)) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            default -> "image/jpeg";
+        };
+        return new StoredImage(name, matcher.group(1), thumbnail, contentType, path);
+    }
+
+    // the original a missing thumbnail would be made from, queueing the thumbnail again; null if there is none
+    public StoredImage originalForThumbnail(String name) {
+        Matcher matcher = FILE_NAME.matcher(name);
+        if (!matcher.matches() || matcher.group(2) == null) {
+            return null;
+        }
+        for (String extension : new String[] {"jpg", "png", "gif"}) {
+            StoredImage original = find(matcher.group(1) + "." + extension);
+            if (original != null) {
+                scheduleThumbnail(original.hash(), original.path());
+                return original;
+            }
+        }
+        return null;
+    }
+
+    private void scheduleThumbnail(String hash, Path original) {
+        if (Files.exists(directory.resolve(hash + THUMBNAIL_SUFFIX)) || !pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    writeThumbnail(hash, original);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not make a thumbnail of {}: {}", original.getFileName(), e.toString());
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            deferred.increment();
+        }
+    }
+
+    // decodes with subsampling so a large photo never has to be held at full resolution
+    private void writeThumbnail(String hash, Path original) throws IOException {
+        BufferedImage source;
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("no reader for the image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException(width + "x" + height + " is more than pins.images.max-pixels");
+                }
+                int step = Math.max(1, Math.max(width, height) / (2 * thumbnailSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // transparent areas of PNGs and GIFs end up white instead of black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path temp = Files.createTempFile(directory, "thumb-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.8f);
+                writer.write(null, new IIOImage(thumbnail, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, directory.resolve(hash + THUMBNAIL_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            thumbnails.increment();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            size += read;
+            if (size > maxBytes) {
+                throw new IllegalArgumentException("An image can be at most " + maxBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return size;
+    }
+
+    // by magic number
+    private static String extension(Path file) throws IOException {
+        byte[] head = new byte[8];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "gif";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
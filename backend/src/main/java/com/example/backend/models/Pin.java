@@ -4,17 +4,21 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -27,7 +31,9 @@ public class Pin {
     // Pin model implementation
     @Id
     @Column(name = "pin_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence instead of IDENTITY so Hibernate can batch inserts (see IdSequenceInitializer)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pins_seq")
+    @SequenceGenerator(name = "pins_seq", sequenceName = "pins_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -40,7 +46,7 @@ public class Pin {
     @Column(length = 1000)
     private String imageUrl;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnoreProperties({"pins", "password", "email"})
     private User user;
@@ -49,5 +55,10 @@ public class Pin {
     @JsonIgnoreProperties("pin")
     private List<Comment> comments = new ArrayList<>();
 
+    // denormalized size of comments, only changed by single-statement updates in PinRepository
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int commentCount;
+
     private Instant createdAt = Instant.now();
 }
@@ -1,14 +1,68 @@
 package com.example.backend.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.DTOs.CommentResponseDTO;
 import com.example.backend.models.Comment;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // selects exactly the CommentResponseDTO columns, the pin id comes from the foreign key without a join
+    String SELECT_DTO = "select new com.example.backend.DTOs.CommentResponseDTO("
+            + "c.id, c.text, u.id, u.username, c.pin.id, c.createdAt) "
+            + "from Comment c join c.user u";
 
-    List<Comment> findByPinIdOrderByCreatedAtDesc(Long pinId);
+    @Query(SELECT_DTO + " where c.pin.id = :pinId order by c.createdAt desc, c.id desc")
+    List<CommentResponseDTO> findDTOsByPinId(Long pinId);
+
+    // first page of a thread, newest first
+    @Query(SELECT_DTO + " where c.pin.id = :pinId order by c.createdAt desc, c.id desc")
+    List<CommentResponseDTO> findDTOsByPinId(Long pinId, Limit limit);
+
+    // the page after (createdAt, id), i.e. older comments; served by the (pin_id, created_at, id) index
+    @Query(SELECT_DTO + " where c.pin.id = :pinId"
+            + " and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id))"
+            + " order by c.createdAt desc, c.id desc")
+    List<CommentResponseDTO> findDTOsByPinIdBefore(Long pinId, Instant createdAt, Long id, Limit limit);
+
+    @Query("select c.pin.id from Comment c where c.id = :id")
+    Optional<Long> findPinIdById(Long id);
+
+    // how many comments the user left on each pin of another user
+    interface PinCommentCount {
+        Long getPinId();
+
+        long getComments();
+    }
+
+    @Query("select c.pin.id as pinId, count(c) as comments from Comment c"
+            + " where c.user.id = :userId and c.pin.user.id <> :userId group by c.pin.id")
+    List<PinCommentCount> countOnOtherPinsByUser(Long userId);
+
+    // set-based deletes, run inside the caller's transaction. Nothing is loaded, unlike the orphanRemoval cascade on Pin
+    @Modifying
+    @Query("delete from Comment c where c.pin.id in :pinIds")
+    int deleteByPinIds(Collection<Long> pinIds);
+
+    @Modifying
+    @Query("delete from Comment c where c.pin.id in (select p.id from Pin p where p.user.id = :userId)")
+    int deleteOnPinsOfUser(Long userId);
+
+    @Modifying
+    @Query("delete from Comment c where c.user.id = :userId")
+    int deleteByUserId(Long userId);
+
+    // 0 when a concurrent request already deleted it
+    @Modifying
+    @Query("delete from Comment c where c.id = :id")
+    int deleteCommentById(Long id);
 }
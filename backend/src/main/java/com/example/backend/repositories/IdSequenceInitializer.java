@@ -0,0 +1,50 @@
+package com.example.backend.repositories;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Pins and comments used IDENTITY ids before they moved to pooled sequences. On a database that
+// already has rows, a freshly created sequence starts at 1 and would hand out ids that are taken,
+// so at startup each sequence is moved past the highest existing id before anything is inserted
+@Component
+public class IdSequenceInitializer {
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // must match the allocationSize of the @SequenceGenerator on the entities
+    static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    void alignSequences() {
+        align("pins_seq", "pins", "pin_id");
+        align("comments_seq", "comments", "id");
+    }
+
+    private void align(String sequence, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        // the pooled optimizer treats a sequence value as the top of a block of ALLOCATION_SIZE ids
+        long safeStart = maxId + ALLOCATION_SIZE + 1;
+        if (next != null && next < safeStart) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + safeStart);
+            log.info("Moved {} to {} (highest {}.{} is {})", sequence, safeStart, table, idColumn, maxId);
+        }
+    }
+}
@@ -1,10 +1,82 @@
 package com.example.backend.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.DTOs.PinResponseDTO;
 import com.example.backend.models.Pin;
 
+import jakarta.persistence.QueryHint;
+
 public interface PinRepository extends JpaRepository<Pin, Long> {
-    List<Pin> findByUserId(Long userId);
+    // selects exactly the PinResponseDTO columns in one join, no Pin or User entities are loaded
+    String SELECT_DTO = "select new com.example.backend.DTOs.PinResponseDTO("
+            + "p.id, p.title, p.description, p.latitude, p.longitude, p.imageUrl, u.id, u.username, p.createdAt, p.commentCount) "
+            + "from Pin p join p.user u";
+
+    // for writes that need the entity and its owner's username
+    @Query("select p from Pin p join fetch p.user where p.id = :id")
+    Optional<Pin> findWithUserById(Long id);
+
+    @Query(SELECT_DTO + " order by p.id")
+    List<PinResponseDTO> findAllDTOs();
+
+    @Query(SELECT_DTO + " where p.id = :id")
+    Optional<PinResponseDTO> findDTOById(Long id);
+
+    @Query(SELECT_DTO + " where u.id = :userId order by p.id")
+    List<PinResponseDTO> findDTOsByUserId(Long userId);
+
+    @Query(SELECT_DTO + " where u.id = :userId order by p.id")
+    List<PinResponseDTO> findDTOsByUserId(Long userId, Pageable pageable);
+
+    // keyset page: everything after the given id, smallest ids first
+    @Query(SELECT_DTO + " where p.id > :after order by p.id")
+    List<PinResponseDTO> findDTOsAfter(Long after, Limit limit);
+
+    // must be consumed inside a transaction and closed, rows are fetched from a cursor in chunks
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + " order by p.id")
+    Stream<PinResponseDTO> streamAllDTOs();
+
+    // atomic in the database, no read-modify-write. Never goes below 0, even on a count that has drifted low
+    @Modifying
+    @Transactional
+    @Query("update Pin p set p.commentCount = case when p.commentCount + :delta < 0 then 0 else p.commentCount + :delta end"
+            + " where p.id = :pinId")
+    int adjustCommentCount(Long pinId, int delta);
+
+    // set-based deletes, run inside the caller's transaction. Comments have to go first (see CommentRepository)
+    @Modifying
+    @Query("delete from Pin p where p.id in :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Pin p where p.user.id = :userId")
+    int deleteByUserId(Long userId);
+
+    // takes the user's comments off the counts of other users' pins, before those comments are deleted
+    @Modifying
+    @Query("update Pin p set p.commentCount = p.commentCount"
+            + " - (select count(c) from Comment c where c.pin = p and c.user.id = :userId)"
+            + " where p.user.id <> :userId and exists (select 1 from Comment c where c.pin = p and c.user.id = :userId)")
+    int subtractCommentsOfUser(Long userId);
+
+    // repair: recompute every count from the comments table, only rows that drifted are written
+    @Modifying
+    @Transactional
+    @Query("update Pin p set p.commentCount = (select count(c) from Comment c where c.pin = p)"
+            + " where p.commentCount <> (select count(c) from Comment c where c.pin = p)")
+    int recountComments();
 }
@@ -1,10 +1,48 @@
 package com.example.backend.repositories;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import com.example.backend.DTOs.UserSummaryDTO;
 import com.example.backend.models.User;
 
+import jakarta.persistence.LockModeType;
+
 public interface UserRepository extends JpaRepository<User, Long> {
     java.util.Optional<User> findByUsername(String username);
     java.util.Optional<User> findByEmail(String email);
+
+    // what a login needs, without the entity or its pins
+    interface LoginCredentials {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        String getPassword();
+    }
+
+    // login lookup in one statement; a username match wins over another account's email, like the old two-step lookup
+    @Query("select u.id as id, u.username as username, u.email as email, u.password as password from User u "
+            + "where u.username = :login or u.email = :login "
+            + "order by case when u.username = :login then 0 else 1 end")
+    java.util.List<LoginCredentials> findCredentialsByLogin(String login, Limit limit);
+
+    @Query("select u.username from User u where u.id = :id")
+    java.util.Optional<String> findUsernameById(Long id);
+
+    // held while a user is deleted: in Postgres a pin insert for this user waits on the row lock and then fails its
+    // foreign key, so no pin can slip in between reading the user's pins and deleting them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    java.util.Optional<User> lockById(Long id);
+
+    // one aggregate query per page, pins are counted and never loaded
+    @Query("select new com.example.backend.DTOs.UserSummaryDTO(u.id, u.username, count(p)) "
+            + "from User u left join u.pins p group by u.id, u.username order by u.id")
+    java.util.List<UserSummaryDTO> findSummaries(Pageable pageable);
 }
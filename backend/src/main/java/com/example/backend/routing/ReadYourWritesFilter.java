@@ -0,0 +1,53 @@
+package com.example.backend.routing;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Read-your-writes for clients when reads can go to replicas. Any request that may write (not GET, HEAD or OPTIONS)
+// gets a PRIMARY_COOKIE lasting datasource.replicas.sticky-seconds, and while a client sends it back its reads stay
+// on the primary. Only GET and HEAD requests without the cookie may read from a replica.
+// The cookie is SameSite=None so the map frontend on another origin sends it with credentialed requests
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnExpression(ReplicaConfig.REPLICAS_CONFIGURED)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String PRIMARY_COOKIE = "primary-reads";
+
+    private final Duration sticky;
+
+    public ReadYourWritesFilter(@Value("${datasource.replicas.sticky-seconds:5}") long stickySeconds) {
+        this.sticky = Duration.ofSeconds(stickySeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean read = method.equals("GET") || method.equals("HEAD");
+        if (!read && !method.equals("OPTIONS")) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(PRIMARY_COOKIE, "1")
+                    .maxAge(sticky).path("/").httpOnly(true).secure(true).sameSite("None").build().toString());
+        }
+        ReplicaRoutingDataSource.setReplicaReads(read && WebUtils.getCookie(request, PRIMARY_COOKIE) == null);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setReplicaReads(false);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Read replicas, only when datasource.replicas.urls lists at least one. The application then has a single DataSource
+// bean (replacing Spring Boot's pool): a LazyConnectionDataSourceProxy over ReplicaRoutingDataSource, which holds
+// the primary pool from spring.datasource.* and one read-only pool per replica URL with the same credentials and
+// spring.datasource.hikari settings. The pools are not beans themselves, so TimedDataSource wraps only the outer one
+@Configuration
+@ConditionalOnExpression(ReplicaConfig.REPLICAS_CONFIGURED)
+public class ReplicaConfig {
+    static final String REPLICAS_CONFIGURED = "!'${datasource.replicas.urls:}'.isBlank()";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                          @Value("${datasource.replicas.urls}") List<String> replicaUrls) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = pool(properties, environment, url.trim(), "replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            // Spring Boot only publishes hikaricp.connections.* for the pool it finds behind the DataSource bean
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+    }
+
+    // Hibernate keeps a session's connection until the session closes, and with open-in-view that is the end of the
+    // request, so the first transaction would choose the database for all later ones. Released after every
+    // transaction, each transaction is routed on its own
+    @Bean
+    HibernatePropertiesCustomizer connectionPerTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Environment environment, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pools.add(pool);
+        return pool;
+    }
+
+    @PreDestroy
+    void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Picks the primary or a replica for each connection. A read-only transaction goes to a replica (round robin) only if
+// - it runs for a request ReadYourWritesFilter allowed replica reads for, so startup, scheduled and background work,
+//   all reads inside a write request and the reads of a client that just wrote stay on the primary, and
+// - it is not inside readFromPrimary, which the cache and snapshot refills use.
+// Everything else goes to the primary. Has to sit behind a LazyConnectionDataSourceProxy: Hibernate takes its
+// connection while the transaction is begun, before Spring marks it read-only, and the proxy delays the choice to
+// the first statement
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    private final List<String> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicaPools) {
+        if (replicaPools.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is needed");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaPools.size(); i++) {
+            String key = "replica-" + (i + 1);
+            replicas.add(key);
+            targets.put(key, replicaPools.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    // set by ReadYourWritesFilter for the duration of a request
+    static void setReplicaReads(boolean allowed) {
+        if (allowed) {
+            REPLICA_READS.set(Boolean.TRUE);
+        } else {
+            REPLICA_READS.remove();
+        }
+    }
+
+    // For reads whose result outlives the request: the pin and comment caches and the pin list snapshot are refilled
+    // by the first read after a write evicts them, and filled from a replica that is behind they would keep serving
+    // the old state to every client. A no-op without replicas, where everything reads the primary anyway
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean replicaReads = REPLICA_READS.get();
+        REPLICA_READS.remove();
+        try {
+            return read.get();
+        } finally {
+            if (replicaReads != null) {
+                REPLICA_READS.set(replicaReads);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !Boolean.TRUE.equals(REPLICA_READS.get())) {
+            return PRIMARY;
+        }
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+}
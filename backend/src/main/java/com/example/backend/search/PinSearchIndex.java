@@ -0,0 +1,561 @@
+package com.example.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.services.PinChangeListener;
+
+// In-memory inverted index over pin titles and descriptions. Text is folded to lower case without accents and split
+// into letter/digit words; title words count twice. Every query word must match, either exactly or as the prefix of
+// an indexed word ("flood" finds "flooded" at half weight), and hits are ranked with BM25.
+// Pins get a dense ordinal and postings are plain int arrays of ordinals. An updated or deleted pin leaves its old
+// ordinal behind as a tombstone that queries skip; once tombstones outnumber live pins the postings are compacted
+@Component
+@Order(PinChangeListener.INDEX_ORDER)
+public class PinSearchIndex implements PinChangeListener {
+    public static final int MAX_QUERY_TERMS = 8;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int TITLE_WEIGHT = 2;
+    // a short prefix like "a" would otherwise expand to most of the vocabulary
+    private static final int MAX_EXPANSIONS = 256;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACTION = 1024;
+    private static final int POOLED_SCRATCHES = Runtime.getRuntime().availableProcessors();
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    // per ordinal, kept in flat arrays so ranking does not have to touch the Doc objects; length -1 marks a tombstone
+    private int[] lengths = new int[16];
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private long totalLength;
+    private int dead;
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(pin.getId());
+            if (ordinal != null) {
+                Doc doc = docs.get(ordinal);
+                // nothing searchable changed, e.g. the startup load or a new image: keep the postings
+                if (doc.sameText(pin)) {
+                    doc.pin = pin;
+                    latitudes[ordinal] = pin.getLatitude();
+                    longitudes[ordinal] = pin.getLongitude();
+                    return;
+                }
+                remove(ordinal);
+            }
+            add(pin);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(pin.getId());
+            if (ordinal != null) {
+                remove(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void pinsDeleted(Collection<PinResponseDTO> pins) {
+        lock.writeLock().lock();
+        try {
+            for (PinResponseDTO pin : pins) {
+                Integer ordinal = ordinals.remove(pin.getId());
+                if (ordinal != null) {
+                    remove(ordinal);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // swaps in a copy with the new count, like PinSpatialIndex; the text and so the postings are unchanged
+    @Override
+    public void commentCountChanged(Long pinId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(pinId);
+            if (ordinal != null) {
+                Doc doc = docs.get(ordinal);
+                doc.pin = doc.pin.withCommentCount(Math.max(0, doc.pin.getCommentCount() + delta));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docs.clear();
+            ordinals.clear();
+            lengths = new int[16];
+            latitudes = new double[16];
+            longitudes = new double[16];
+            totalLength = 0;
+            dead = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PinResponseDTO> search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    // only pins inside the box (edges included); minLon > maxLon means the box crosses the antimeridian
+    public List<PinResponseDTO> search(String query, double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+        return search(query, new Box(minLat, minLon, maxLat, maxLon), limit);
+    }
+
+    // ranks the given pins instead of walking the postings, for when a small set of pins (e.g. those in a box,
+    // from PinSpatialIndex) is cheaper to check one by one than the postings of the query words
+    public List<PinResponseDTO> searchAmong(String query, Collection<PinResponseDTO> pins, int limit) {
+        List<String> words = words(query);
+        lock.readLock().lock();
+        try {
+            int live = ordinals.size();
+            double averageLength = live == 0 ? 1 : (double) totalLength / live;
+            Scratch scratch = borrowScratch(docs.size());
+            int[] candidates = scratch.candidates;
+            int candidateCount = 0;
+            try {
+                for (PinResponseDTO pin : pins) {
+                    Integer ordinal = ordinals.get(pin.getId());
+                    if (ordinal == null || scratch.hits[ordinal] != 0) {
+                        continue;
+                    }
+                    float score = score(docs.get(ordinal), words, live, averageLength);
+                    if (score > 0) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = ordinal;
+                        scratch.scores[ordinal] = score;
+                        scratch.hits[ordinal] = 1;
+                    }
+                }
+                return top(candidates, candidateCount, scratch.scores, scratch.hits, 1, limit);
+            } finally {
+                release(scratch, candidates, candidateCount);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // how many postings a search for the query would walk: those of its rarest word, prefix expansions included
+    public long estimateMatches(String query) {
+        List<String> words = words(query);
+        lock.readLock().lock();
+        try {
+            long estimate = Long.MAX_VALUE;
+            for (String word : words) {
+                estimate = Math.min(estimate, postingCount(expand(word)));
+            }
+            return estimate;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best matches first, at most limit of them
+    private List<PinResponseDTO> search(String query, Box box, int limit) {
+        List<String> words = words(query);
+        lock.readLock().lock();
+        try {
+            List<List<Match>> matches = new ArrayList<>();
+            for (String word : words) {
+                List<Match> wordMatches = expand(word);
+                if (wordMatches.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(wordMatches);
+            }
+            // rarest word first: it decides the candidates, the others can only narrow them down
+            matches.sort(Comparator.comparingLong(PinSearchIndex::postingCount));
+            return rank(matches, box, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> words(String query) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain at least one word");
+        }
+        if (words.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Query may contain at most " + MAX_QUERY_TERMS + " words");
+        }
+        return words;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private List<Match> expand(String word) {
+        List<Match> result = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            result.add(new Match(exact, 1.0));
+        }
+        for (Postings postings : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+            if (result.size() > MAX_EXPANSIONS) {
+                break;
+            }
+            result.add(new Match(postings, PREFIX_WEIGHT));
+        }
+        return result;
+    }
+
+    // per-ordinal scratch arrays: hits[ordinal] is how many query words the pin matched so far, so a pin that missed
+    // an earlier word is skipped for the later ones. Only ordinals of the first word's postings are ever touched,
+    // they are listed in candidates and reset afterwards, so a query costs its postings and not the index size
+    private List<PinResponseDTO> rank(List<List<Match>> matches, Box box, int limit) {
+        int live = ordinals.size();
+        double averageLength = live == 0 ? 1 : (double) totalLength / live;
+        Scratch scratch = borrowScratch(docs.size());
+        float[] scores = scratch.scores;
+        byte[] hits = scratch.hits;
+        int[] candidates = scratch.candidates;
+        int candidateCount = 0;
+        try {
+            for (int word = 0; word < matches.size(); word++) {
+                for (Match match : matches.get(word)) {
+                    Postings postings = match.postings();
+                    double weight = match.weight() * idf(postings.live, live);
+                    for (int i = 0; i < postings.size; i++) {
+                        int ordinal = postings.ordinals[i];
+                        int length = lengths[ordinal];
+                        if (hits[ordinal] < word || length < 0) {
+                            continue;
+                        }
+                        if (word == 0 && hits[ordinal] == 0) {
+                            if (candidateCount == candidates.length) {
+                                candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                            }
+                            candidates[candidateCount++] = ordinal;
+                            if (box != null && !box.contains(latitudes[ordinal], longitudes[ordinal])) {
+                                // mark it so the other expansions of the first word skip it too
+                                hits[ordinal] = -1;
+                                continue;
+                            }
+                        }
+                        scores[ordinal] += (float) (weight * saturation(postings.frequencies[i], length, averageLength));
+                        hits[ordinal] = (byte) (word + 1);
+                    }
+                }
+            }
+            return top(candidates, candidateCount, scores, hits, matches.size(), limit);
+        } finally {
+            release(scratch, candidates, candidateCount);
+        }
+    }
+
+    // the same score rank() adds up from the postings, worked out from the pin's own terms; 0 if a word is missing
+    private float score(Doc doc, List<String> words, int live, double averageLength) {
+        double total = 0;
+        for (String word : words) {
+            double wordScore = 0;
+            for (int t = 0; t < doc.terms.length; t++) {
+                String term = doc.terms[t];
+                double weight = term.equals(word) ? 1.0 : term.startsWith(word) ? PREFIX_WEIGHT : 0;
+                if (weight > 0) {
+                    wordScore += weight * idf(terms.get(term).live, live) * saturation(doc.frequencies[t], doc.length, averageLength);
+                }
+            }
+            if (wordScore == 0) {
+                return 0;
+            }
+            total += wordScore;
+        }
+        return (float) total;
+    }
+
+    private static double idf(int matching, int live) {
+        return Math.log(1 + (live - matching + 0.5) / (matching + 0.5));
+    }
+
+    private static double saturation(int frequency, int length, double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private void release(Scratch scratch, int[] candidates, int candidateCount) {
+        for (int i = 0; i < candidateCount; i++) {
+            scratch.scores[candidates[i]] = 0;
+            scratch.hits[candidates[i]] = 0;
+        }
+        scratch.candidates = candidates;
+        // keep about one per core, a burst of concurrent queries beyond that allocates and drops its own
+        if (scratchPool.size() < POOLED_SCRATCHES) {
+            scratchPool.offer(scratch);
+        }
+    }
+
+    // min-heap of the best limit hits, on equal scores the newer pin wins
+    private List<PinResponseDTO> top(int[] candidates, int candidateCount, float[] scores, byte[] hits, int words, int limit) {
+        Comparator<Integer> order = Comparator.comparingDouble((Integer ordinal) -> scores[ordinal])
+                .thenComparingLong(ordinal -> docs.get(ordinal).pin.getId());
+        PriorityQueue<Integer> best = new PriorityQueue<>(order);
+        for (int i = 0; i < candidateCount; i++) {
+            int ordinal = candidates[i];
+            if (hits[ordinal] != words) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(ordinal);
+            } else if (scores[ordinal] >= scores[best.peek()] && order.compare(ordinal, best.peek()) > 0) {
+                best.poll();
+                best.add(ordinal);
+            }
+        }
+        PinResponseDTO[] result = new PinResponseDTO[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = docs.get(best.poll()).pin;
+        }
+        return Arrays.asList(result);
+    }
+
+    // queries hold the read lock, so the ordinal count cannot grow while a scratch is in use
+    private Scratch borrowScratch(int size) {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null || scratch.scores.length < size) {
+            scratch = new Scratch(Math.max(size, 16));
+        }
+        return scratch;
+    }
+
+    private void add(PinResponseDTO pin) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(pin.getTitle())) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(pin.getDescription())) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        int ordinal = docs.size();
+        int length = 0;
+        String[] docTerms = new String[frequencies.size()];
+        int[] docFrequencies = new int[frequencies.size()];
+        int t = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings postings = terms.computeIfAbsent(entry.getKey(), key -> new Postings());
+            postings.add(ordinal, entry.getValue());
+            docTerms[t] = entry.getKey();
+            docFrequencies[t++] = entry.getValue();
+            length += entry.getValue();
+        }
+        docs.add(new Doc(pin, docTerms, docFrequencies, length));
+        ensureCapacity(ordinal + 1);
+        lengths[ordinal] = length;
+        latitudes[ordinal] = pin.getLatitude();
+        longitudes[ordinal] = pin.getLongitude();
+        ordinals.put(pin.getId(), ordinal);
+        totalLength += length;
+    }
+
+    // leaves the ordinal in the postings as a tombstone; only the live counts are updated now
+    private void remove(int ordinal) {
+        Doc doc = docs.set(ordinal, null);
+        lengths[ordinal] = -1;
+        for (String term : doc.terms) {
+            Postings postings = terms.get(term);
+            if (--postings.live == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= doc.length;
+        dead++;
+    }
+
+    private void compactIfNeeded() {
+        if (dead < MIN_COMPACTION || dead <= ordinals.size()) {
+            return;
+        }
+        int[] remap = new int[docs.size()];
+        List<Doc> compacted = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < docs.size(); ordinal++) {
+            Doc doc = docs.get(ordinal);
+            remap[ordinal] = doc == null ? -1 : compacted.size();
+            if (doc != null) {
+                int moved = compacted.size();
+                lengths[moved] = lengths[ordinal];
+                latitudes[moved] = latitudes[ordinal];
+                longitudes[moved] = longitudes[ordinal];
+                ordinals.put(doc.pin.getId(), moved);
+                compacted.add(doc);
+            }
+        }
+        for (Postings postings : terms.values()) {
+            postings.remap(remap);
+        }
+        docs.clear();
+        docs.addAll(compacted);
+        dead = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > lengths.length) {
+            int grown = Math.max(capacity, lengths.length * 2);
+            lengths = Arrays.copyOf(lengths, grown);
+            latitudes = Arrays.copyOf(latitudes, grown);
+            longitudes = Arrays.copyOf(longitudes, grown);
+        }
+    }
+
+    private static long postingCount(List<Match> matches) {
+        long count = 0;
+        for (Match match : matches) {
+            count += match.postings().live;
+        }
+        return count;
+    }
+
+    // all zeroes between queries
+    private static final class Scratch {
+        private final float[] scores;
+        private final byte[] hits;
+        private int[] candidates = new int[64];
+
+        Scratch(int capacity) {
+            scores = new float[capacity];
+            hits = new byte[capacity];
+        }
+    }
+
+    private record Match(Postings postings, double weight) {
+    }
+
+    private record Box(double minLat, double minLon, double maxLat, double maxLon) {
+        boolean contains(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= maxLat
+                    && (minLon <= maxLon
+                            ? longitude >= minLon && longitude <= maxLon
+                            : longitude >= minLon || longitude <= maxLon);
+        }
+    }
+
+    private static final class Doc {
+        private PinResponseDTO pin;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int length;
+
+        Doc(PinResponseDTO pin, String[] terms, int[] frequencies, int length) {
+            this.pin = pin;
+            this.terms = terms;
+            this.frequencies = frequencies;
+            this.length = length;
+        }
+
+        boolean sameText(PinResponseDTO other) {
+            return Objects.equals(pin.getTitle(), other.getTitle())
+                    && Objects.equals(pin.getDescription(), other.getDescription());
+        }
+    }
+
+    // ordinals in insertion order, tombstones included; live counts only the pins still indexed
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+        private int live;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        void remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size < ordinals.length / 4) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(2, size));
+                frequencies = Arrays.copyOf(frequencies, Math.max(2, size));
+            }
+        }
+    }
+}
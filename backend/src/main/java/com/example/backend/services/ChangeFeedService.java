@@ -0,0 +1,241 @@
+package com.example.backend.services;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.backend.DTOs.ChangeEventDTO;
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.spatial.PinSpatialIndex;
+
+import jakarta.annotation.PreDestroy;
+
+// Live feed of pin and comment changes over Server-Sent Events.
+// Writers never touch a connection: publishing only offers the event to each matching subscriber's
+// bounded queue, and a small sender pool drains the queues. A subscriber whose queue is full is
+// disconnected (EventSource reconnects and the client refetches), so one slow client cannot hold up
+// writers or other subscribers. Idle subscribers are just an SseEmitter and an empty queue, no thread
+@Service
+@Order(PinChangeListener.VIEW_ORDER)
+public class ChangeFeedService implements PinChangeListener, CommentChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private final PinSpatialIndex spatialIndex;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final ExecutorService senders;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public ChangeFeedService(PinSpatialIndex spatialIndex,
+                             @Value("${pins.events.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${pins.events.queue-capacity:256}") int queueCapacity,
+                             @Value("${pins.events.max-subscribers:50000}") int maxSubscribers,
+                             @Value("${pins.events.sender-threads:4}") int senderThreads,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.spatialIndex = spatialIndex;
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        if (virtualThreads) {
+            // a slow socket write then parks only its own virtual thread, so sender-threads no longer applies
+            this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-feed-", 1).factory());
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // what a subscriber wants to see: everything, one pin, or one area (minLon > maxLon crosses the antimeridian)
+    public record Filter(Long pinId, Double minLat, Double minLon, Double maxLat, Double maxLon) {
+        boolean hasBox() {
+            return minLat != null && minLon != null && maxLat != null && maxLon != null;
+        }
+
+        boolean matches(ChangeEventDTO event) {
+            if (pinId != null && !pinId.equals(event.getPinId())) {
+                return false;
+            }
+            if (!hasBox()) {
+                return true;
+            }
+            // deletes of pins we no longer have a position for are sent to every area subscriber
+            if (event.getLatitude() == null || event.getLongitude() == null) {
+                return ChangeEventDTO.PIN_DELETED.equals(event.getType());
+            }
+            double latitude = event.getLatitude();
+            double longitude = event.getLongitude();
+            if (latitude < minLat || latitude > maxLat) {
+                return false;
+            }
+            return minLon <= maxLon
+                    ? longitude >= minLon && longitude <= maxLon
+                    : longitude >= minLon || longitude <= maxLon;
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Filter filter;
+        final BlockingQueue<ChangeEventDTO> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+    }
+
+    public SseEmitter subscribe(Filter filter) {
+        if (filter.hasBox() && filter.minLat() > filter.maxLat()) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        // startup load, nothing to announce
+    }
+
+    @Override
+    public void pinCreated(PinResponseDTO pin) {
+        publish(new ChangeEventDTO(ChangeEventDTO.PIN_CREATED, pin.getId(), null, pin.getLatitude(), pin.getLongitude(), pin, null));
+    }
+
+    @Override
+    public void pinUpdated(PinResponseDTO pin) {
+        publish(new ChangeEventDTO(ChangeEventDTO.PIN_UPDATED, pin.getId(), null, pin.getLatitude(), pin.getLongitude(), pin, null));
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        publish(new ChangeEventDTO(ChangeEventDTO.PIN_DELETED, pin.getId(), null, pin.getLatitude(), pin.getLongitude(), null, null));
+    }
+
+    @Override
+    public void commentAdded(CommentResponseDTO comment) {
+        PinResponseDTO pin = spatialIndex.get(comment.getPinId());
+        publish(new ChangeEventDTO(ChangeEventDTO.COMMENT_CREATED, comment.getPinId(), comment.getId(),
+                pin == null ? null : pin.getLatitude(), pin == null ? null : pin.getLongitude(), null, comment));
+    }
+
+    @Override
+    public void commentDeleted(Long commentId, Long pinId) {
+        PinResponseDTO pin = spatialIndex.get(pinId);
+        publish(new ChangeEventDTO(ChangeEventDTO.COMMENT_DELETED, pinId, commentId,
+                pin == null ? null : pin.getLatitude(), pin == null ? null : pin.getLongitude(), null, null));
+    }
+
+    // never blocks: a full queue disconnects that subscriber instead of waiting for it
+    void publish(ChangeEventDTO event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.filter.matches(event)) {
+                continue;
+            }
+            if (subscriber.queue.offer(event)) {
+                scheduleDrain(subscriber);
+            } else {
+                log.debug("Dropping change feed subscriber with {} undelivered events", subscriber.queue.size());
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    // keeps proxies from closing idle connections and finds clients that went away
+    @Scheduled(fixedDelayString = "${pins.events.heartbeat-ms:25000}")
+    void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        // at most one drain task per subscriber, so its events stay in order
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+            ChangeEventDTO event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(event.getType())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter already completed
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // an event may have been queued after the last poll but before draining was released
+        if (!subscriber.queue.isEmpty() || subscriber.heartbeatDue) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
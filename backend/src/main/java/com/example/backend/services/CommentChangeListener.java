@@ -0,0 +1,11 @@
+package com.example.backend.services;
+
+import com.example.backend.DTOs.CommentResponseDTO;
+
+// Called by CommentService after a comment write has been saved
+public interface CommentChangeListener {
+
+    void commentAdded(CommentResponseDTO comment);
+
+    void commentDeleted(Long commentId, Long pinId);
+}
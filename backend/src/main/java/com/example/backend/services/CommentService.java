@@ -1,28 +1,52 @@
 package com.example.backend.services;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.backend.CacheConfig;
+import com.example.backend.DTOs.CommentPageDTO;
 import com.example.backend.DTOs.CommentResponseDTO;
 import com.example.backend.models.Comment;
 import com.example.backend.repositories.CommentRepository;
 import com.example.backend.repositories.PinRepository;
 import com.example.backend.repositories.UserRepository;
+import com.example.backend.routing.ReplicaRoutingDataSource;
 
 @Service
 public class CommentService {
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final PinRepository pinRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final List<CommentChangeListener> listeners;
+    // comment counts are part of the pin state mirrored in memory
+    private final List<PinChangeListener> pinListeners;
 
-    public CommentService(CommentRepository commentRepository, UserRepository userRepository, PinRepository pinRepository) {
+    public CommentService(CommentRepository commentRepository, UserRepository userRepository, PinRepository pinRepository,
+                          CacheManager cacheManager, TransactionTemplate transactionTemplate,
+                          List<CommentChangeListener> listeners, List<PinChangeListener> pinListeners) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
         this.pinRepository = pinRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.listeners = listeners;
+        this.pinListeners = pinListeners;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.PIN_COMMENTS, CacheConfig.PINS}, key = "#pinId")
     public CommentResponseDTO addComment(String text, Long userId, Long pinId) {
         // Validate user and pin existence
         if (!userRepository.existsById(userId)) {
@@ -37,8 +61,13 @@ public class CommentService {
         comment.setText(text);
         comment.setUser(userRepository.findById(userId).orElseThrow());
         comment.setPin(pinRepository.findById(pinId).orElseThrow());
-        Comment savedComment = commentRepository.save(comment);
-        return new CommentResponseDTO(
+        // the comment and its pin's count change together
+        Comment savedComment = transactionTemplate.execute(status -> {
+            Comment saved = commentRepository.save(comment);
+            pinRepository.adjustCommentCount(pinId, 1);
+            return saved;
+        });
+        CommentResponseDTO created = new CommentResponseDTO(
             savedComment.getId(),
             savedComment.getText(),
             savedComment.getUser().getId(),
@@ -46,29 +75,85 @@ public class CommentService {
             savedComment.getPin().getId(),
             savedComment.getCreatedAt()
         );
+        pinListeners.forEach(listener -> listener.commentCountChanged(pinId, 1));
+        listeners.forEach(listener -> listener.commentAdded(created));
+        return created;
     }
 
+    // cached, so read from the primary
+    @Cacheable(cacheNames = CacheConfig.PIN_COMMENTS, key = "#pinId")
+    @Transactional(readOnly = true)
     public List<CommentResponseDTO> findCommentsByPinId(Long pinId) {
-        if (!pinRepository.existsById(pinId)) {
-            throw new RuntimeException("Pin not found with id: " + pinId);
+        return ReplicaRoutingDataSource.readFromPrimary(() -> {
+            List<CommentResponseDTO> comments = commentRepository.findDTOsByPinId(pinId);
+            // an empty thread is the only case where the pin might not exist
+            if (comments.isEmpty() && !pinRepository.existsById(pinId)) {
+                throw new RuntimeException("Pin not found with id: " + pinId);
+            }
+            return comments;
+        });
+    }
+
+    // keyset pagination over a thread, newest first. before is the nextCursor of the previous page
+    // ("<createdAt epoch micros>_<id>"), so every page is a single index range scan however long the thread is
+    public CommentPageDTO findCommentPage(Long pinId, String before, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
         }
-        return commentRepository.findByPinIdOrderByCreatedAtDesc(pinId)
-            .stream()
-            .map(comment -> new CommentResponseDTO(
-                comment.getId(),
-                comment.getText(),
-                comment.getUser().getId(),
-                comment.getUser().getUsername(),
-                comment.getPin().getId(),
-                comment.getCreatedAt()
-            ))
-            .collect(Collectors.toList());
+        List<CommentResponseDTO> comments;
+        if (before == null || before.isEmpty()) {
+            comments = commentRepository.findDTOsByPinId(pinId, Limit.of(limit));
+            if (comments.isEmpty() && !pinRepository.existsById(pinId)) {
+                throw new RuntimeException("Pin not found with id: " + pinId);
+            }
+        } else {
+            String[] cursor = before.split("_");
+            if (cursor.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + before);
+            }
+            long micros;
+            long id;
+            try {
+                micros = Long.parseLong(cursor[0]);
+                id = Long.parseLong(cursor[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + before);
+            }
+            Instant createdAt = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000L);
+            comments = commentRepository.findDTOsByPinIdBefore(pinId, createdAt, id, Limit.of(limit));
+        }
+
+        String nextCursor = null;
+        if (comments.size() == limit) {
+            CommentResponseDTO last = comments.get(comments.size() - 1);
+            Instant createdAt = last.getCreatedAt();
+            nextCursor = (createdAt.getEpochSecond() * 1_000_000L + createdAt.getNano() / 1000) + "_" + last.getId();
+        }
+        return new CommentPageDTO(comments, nextCursor);
     }
 
     public void deleteComment(Long commentId) {
-        if (!commentRepository.existsById(commentId)) {
-            throw new RuntimeException("Comment not found with id: " + commentId);
+        Long pinId = commentRepository.findPinIdById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found with id: " + commentId));
+        // of two concurrent deletes only the one that removed the row adjusts the count and tells the listeners
+        boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (commentRepository.deleteCommentById(commentId) != 1) {
+                return false;
+            }
+            pinRepository.adjustCommentCount(pinId, -1);
+            return true;
+        }));
+        if (!deleted) {
+            return;
+        }
+        // the pin id is only known after the lookup, so these are evicted by hand
+        for (String cacheName : List.of(CacheConfig.PIN_COMMENTS, CacheConfig.PINS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(pinId);
+            }
         }
-        commentRepository.deleteById(commentId);
+        pinListeners.forEach(listener -> listener.commentCountChanged(pinId, -1));
+        listeners.forEach(listener -> listener.commentDeleted(commentId, pinId));
     }
 }
@@ -0,0 +1,289 @@
+package com.example.backend.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.backend.CacheConfig;
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.models.Comment;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.spatial.PinSpatialIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+// Opt-in write-behind for POST /comments/add (comments.write-behind.enabled). A comment is checked against the
+// in-memory pin index and the cached username of its author, queued and acknowledged without touching the
+// database. One writer thread takes the queue in batches of up to batch-size, or whatever arrived within flush-ms,
+// and writes each batch in one transaction: JDBC-batched inserts plus one count update per pin.
+// A full queue answers 503. On shutdown the queue is closed to new comments and drained before the database goes
+@Component
+public class CommentWriteBehind implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(CommentWriteBehind.class);
+    private static final int MAX_TEXT_LENGTH = 500;
+
+    private record QueuedComment(String text, Long userId, String username, Long pinId, Instant createdAt) {
+    }
+
+    private final CommentRepository commentRepository;
+    private final PinRepository pinRepository;
+    private final UserService userService;
+    private final PinSpatialIndex spatialIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final List<CommentChangeListener> listeners;
+    private final List<PinChangeListener> pinListeners;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushNanos;
+    private final long drainMillis;
+    private final BlockingQueue<QueuedComment> queue;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final DistributionSummary batches;
+
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentWriteBehind(CommentRepository commentRepository, PinRepository pinRepository, UserService userService,
+                              PinSpatialIndex spatialIndex, EntityManager entityManager,
+                              TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                              List<CommentChangeListener> listeners, List<PinChangeListener> pinListeners,
+                              MeterRegistry meterRegistry,
+                              @Value("${comments.write-behind.enabled:false}") boolean enabled,
+                              @Value("${comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${comments.write-behind.batch-size:500}") int batchSize,
+                              @Value("${comments.write-behind.flush-ms:50}") long flushMillis,
+                              @Value("${comments.write-behind.drain-timeout-ms:30000}") long drainMillis) {
+        if (batchSize < 1 || queueCapacity < batchSize) {
+            throw new IllegalArgumentException("comments.write-behind.batch-size must be between 1 and queue-capacity (" + queueCapacity + "): " + batchSize);
+        }
+        this.commentRepository = commentRepository;
+        this.pinRepository = pinRepository;
+        this.userService = userService;
+        this.spatialIndex = spatialIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.listeners = listeners;
+        this.pinListeners = pinListeners;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.drainMillis = drainMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.rejected = Counter.builder("comments.write-behind.rejected")
+                .description("Comments refused because the write-behind queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("comments.write-behind.dropped")
+                .description("Acknowledged comments that could not be written, e.g. because their pin was deleted meanwhile")
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("comments.write-behind.batch.size")
+                .description("Comments written per transaction")
+                .register(meterRegistry);
+        Gauge.builder("comments.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Acknowledged comments waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // validates and queues a comment. The returned comment has no id yet; it shows up in the pin's thread and on
+    // the change feed once its batch is written. Throws a 503 when the queue is full
+    public CommentResponseDTO submit(String text, Long userId, Long pinId) {
+        if (text == null || text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("text is required and can be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        String username = userService.getUsername(userId);
+        if (pinId == null || spatialIndex.get(pinId) == null) {
+            throw new RuntimeException("Pin not found with id: " + pinId);
+        }
+        QueuedComment comment = new QueuedComment(text, userId, username, pinId, Instant.now());
+        if (!running || !queue.offer(comment)) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many comments waiting to be written, try again shortly");
+        }
+        return new CommentResponseDTO(null, text, userId, username, pinId, comment.createdAt());
+    }
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (!enabled || running) {
+                return;
+            }
+            running = true;
+            writer = new Thread(this::writeUntilStopped, "comment-writer");
+            writer.start();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    // new comments are refused from here on, the writer finishes what was acknowledged and exits
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            try {
+                writer.join(drainMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive() || !queue.isEmpty()) {
+                log.warn("Comment write-behind did not drain within {}ms, {} comments are lost", drainMillis, queue.size());
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // started before and stopped after the web server, so no request is accepted that cannot be written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void writeUntilStopped() {
+        List<QueuedComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (nextBatch(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the writer, the drain on stop() depends on it running to the end
+            } catch (RuntimeException e) {
+                log.error("Could not write {} queued comments", batch.size(), e);
+                dropped.increment(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // waits up to flush-ms for a first comment, then fills the batch until it is full or flush-ms have passed
+    private boolean nextBatch(List<QueuedComment> batch) throws InterruptedException {
+        QueuedComment first = queue.poll(flushNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0 || !running) {
+                break;
+            }
+            QueuedComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    // a batch that fails as a whole (a pin or user deleted since the comment was accepted) is written again one
+    // comment at a time, so only the comments that really cannot be written are dropped
+    private void write(List<QueuedComment> batch) {
+        List<CommentResponseDTO> written;
+        try {
+            written = insert(batch);
+        } catch (DataAccessException e) {
+            written = new ArrayList<>(batch.size());
+            for (QueuedComment comment : batch) {
+                try {
+                    written.addAll(insert(List.of(comment)));
+                } catch (DataAccessException single) {
+                    log.warn("Dropped a queued comment on pin {} by user {}: {}", comment.pinId(), comment.userId(), single.getMessage());
+                    dropped.increment();
+                }
+            }
+        }
+        batches.record(written.size());
+        announce(written);
+    }
+
+    private List<CommentResponseDTO> insert(List<QueuedComment> batch) {
+        return transactionTemplate.execute(status -> {
+            List<Comment> comments = new ArrayList<>(batch.size());
+            Map<Long, Integer> added = new LinkedHashMap<>();
+            for (QueuedComment queued : batch) {
+                Comment comment = new Comment();
+                comment.setText(queued.text());
+                // references only, both were checked on submit and the foreign keys check them again
+                comment.setUser(entityManager.getReference(User.class, queued.userId()));
+                comment.setPin(entityManager.getReference(Pin.class, queued.pinId()));
+                comment.setCreatedAt(queued.createdAt());
+                comments.add(comment);
+                added.merge(queued.pinId(), 1, Integer::sum);
+            }
+            commentRepository.saveAll(comments);
+            added.forEach(pinRepository::adjustCommentCount);
+
+            List<CommentResponseDTO> written = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                QueuedComment queued = batch.get(i);
+                written.add(new CommentResponseDTO(comments.get(i).getId(), queued.text(), queued.userId(),
+                        queued.username(), queued.pinId(), queued.createdAt()));
+            }
+            return written;
+        });
+    }
+
+    // once per pin and batch for caches and counts, once per comment for the change feed
+    private void announce(List<CommentResponseDTO> written) {
+        Map<Long, Integer> added = new LinkedHashMap<>();
+        written.forEach(comment -> added.merge(comment.getPinId(), 1, Integer::sum));
+        for (String cacheName : List.of(CacheConfig.PIN_COMMENTS, CacheConfig.PINS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                added.keySet().forEach(cache::evict);
+            }
+        }
+        added.forEach((pinId, count) -> pinListeners.forEach(listener -> listener.commentCountChanged(pinId, count)));
+        written.forEach(comment -> listeners.forEach(listener -> listener.commentAdded(comment)));
+    }
+}
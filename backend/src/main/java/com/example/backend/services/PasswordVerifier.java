@@ -0,0 +1,77 @@
+package com.example.backend.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Runs BCrypt checks on a small dedicated pool. A login storm can then use at most users.login.threads cores,
+// and once users.login.queue-capacity checks are waiting further logins get a 503 right away
+// instead of piling up on Tomcat workers that pin reads also need.
+// The pool stays on platform threads in virtual-thread mode too: hashing is CPU-bound and the bound is the point
+@Component
+public class PasswordVerifier {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                            @Value("${users.login.threads:0}") int threads,
+                            @Value("${users.login.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        // 0 means half the cores, the rest stay free for everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("users.login.hash")
+                .description("Time spent in BCrypt password checks")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("users.login.rejected")
+                .description("Logins refused because the verification queue was full")
+                .register(meterRegistry);
+        Gauge.builder("users.login.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a verifier thread")
+                .register(meterRegistry);
+        Gauge.builder("users.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks currently running")
+                .register(meterRegistry);
+    }
+
+    // completes with whether the password matches, throws a 503 when the queue is full
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> hashTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins in progress, try again shortly");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
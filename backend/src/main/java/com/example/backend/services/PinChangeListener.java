@@ -0,0 +1,42 @@
+package com.example.backend.services;
+
+import java.util.Collection;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+// Implemented by the in-memory structures that mirror the pins table. PinService loads every
+// listener at startup and then calls it after each write, so none of them has to query the database itself
+public interface PinChangeListener {
+
+    // @Order of the implementations: the indexes are updated first, then the structures that read them (the list
+    // snapshot, the change feed), and PinTileCache, built from the spatial and cluster indexes, is told last
+    int INDEX_ORDER = 0;
+    int VIEW_ORDER = 100;
+
+    // called for every pin during the startup load, and by default for creates and updates
+    void pinSaved(PinResponseDTO pin);
+
+    // receives the last known state of the pin so listeners can find where it was
+    void pinDeleted(PinResponseDTO pin);
+
+    // several pins removed by one operation (a user's pins); structures with a lock override it to take it once
+    default void pinsDeleted(Collection<PinResponseDTO> pins) {
+        pins.forEach(this::pinDeleted);
+    }
+
+    default void pinCreated(PinResponseDTO pin) {
+        pinSaved(pin);
+    }
+
+    default void pinUpdated(PinResponseDTO pin) {
+        pinSaved(pin);
+    }
+
+    // a comment was added (+1) or deleted (-1) on the pin
+    default void commentCountChanged(Long pinId, int delta) {
+    }
+
+    // called before a full reload from the database
+    default void clear() {
+    }
+}
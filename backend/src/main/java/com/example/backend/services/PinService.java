@@ -1,57 +1,294 @@
 package com.example.backend.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PostConstruct;
+
+import com.example.backend.CacheConfig;
+import com.example.backend.cache.PinListSnapshot;
+import com.example.backend.cache.PinTileCache;
+import com.example.backend.DTOs.PinBatchResultDTO;
+import com.example.backend.DTOs.PinClusterDTO;
 import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinNearbyDTO;
+import com.example.backend.DTOs.PinPageDTO;
 import com.example.backend.DTOs.PinResponseDTO;
 import com.example.backend.DTOs.PinUpdateDTO;
+import com.example.backend.images.ImageStore;
 import com.example.backend.models.Pin;
 import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
 import com.example.backend.repositories.PinRepository;
 import com.example.backend.repositories.UserRepository;
+import com.example.backend.routing.ReplicaRoutingDataSource;
+import com.example.backend.search.PinSearchIndex;
+import com.example.backend.spatial.PinClusterIndex;
+import com.example.backend.spatial.PinSpatialIndex;
 
 @Service
 public class PinService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 200;
+    public static final int MAX_NEARBY_RESULTS = 200;
+    // below this many postings a text-first search takes well under a millisecond anyway
+    private static final long SPATIAL_FIRST_MIN_POSTINGS = 20_000;
+    // checking one pin against the query costs roughly as much as this many postings
+    private static final int SPATIAL_FIRST_COST_RATIO = 8;
+
     private final PinRepository pinRepository;
 
     private final UserRepository userRepository;
 
-    public PinService(PinRepository pinRepository, UserRepository userRepository) {
+    private final CommentRepository commentRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final PinSpatialIndex spatialIndex;
+
+    private final PinClusterIndex clusterIndex;
+
+    private final PinListSnapshot pinListSnapshot;
+
+    private final PinTileCache tileCache;
+
+    private final PinSearchIndex searchIndex;
+
+    private final ImageStore imageStore;
+
+    // everything that mirrors the pins table in memory (spatial index, clusters, ...)
+    private final List<PinChangeListener> listeners;
+
+    private final int maxBatchSize;
+
+    public PinService(PinRepository pinRepository, UserRepository userRepository, PinSpatialIndex spatialIndex,
+                      PinClusterIndex clusterIndex, PinListSnapshot pinListSnapshot, PinTileCache tileCache,
+                      PinSearchIndex searchIndex, ImageStore imageStore, CommentRepository commentRepository,
+                      TransactionTemplate transactionTemplate, CacheManager cacheManager, List<PinChangeListener> listeners,
+                      @Value("${pins.batch.max-size:1000}") int maxBatchSize) {
         this.pinRepository = pinRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
         this.userRepository = userRepository;
+        this.spatialIndex = spatialIndex;
+        this.clusterIndex = clusterIndex;
+        this.pinListSnapshot = pinListSnapshot;
+        this.tileCache = tileCache;
+        this.searchIndex = searchIndex;
+        this.imageStore = imageStore;
+        this.listeners = listeners;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // fill the listeners once at startup, after that they are kept current by the write methods below. Comment
+    // counts are recounted first: a comment_count column just added by ddl-auto is 0 on every existing pin, and the
+    // nightly repair would otherwise be the first to fill it in
+    @PostConstruct
+    void loadListeners() {
+        pinRepository.recountComments();
+        listeners.forEach(PinChangeListener::clear);
+        pinRepository.findAllDTOs().forEach(pin -> listeners.forEach(listener -> listener.pinSaved(pin)));
     }
 
+    @Transactional(readOnly = true)
     public List<PinResponseDTO> getAllPins() {
-        List<Pin> pins = pinRepository.findAll();
-        return pins.stream()
-                .map(PinResponseDTO::new)
-                .collect(Collectors.toList());
+        return pinRepository.findAllDTOs();
     }
 
+    // serialized getAllPins, only rebuilt after a pin write, from the primary
+    public PinListSnapshot.Snapshot getAllPinsSnapshot() {
+        return pinListSnapshot.current(() -> ReplicaRoutingDataSource.readFromPrimary(this::getAllPins));
+    }
+
+    // repair job for the denormalized Pin.commentCount: recounts everything in one statement, then
+    // pushes the corrected pins to the in-memory listeners. Pins are only re-put, never cleared, so
+    // readers keep seeing a full index while this runs
+    @Scheduled(cron = "${pins.comment-count-repair.cron:0 30 3 * * *}")
+    @CacheEvict(cacheNames = CacheConfig.PINS, allEntries = true)
+    public int repairCommentCounts() {
+        int repaired = pinRepository.recountComments();
+        if (repaired > 0) {
+            pinRepository.findAllDTOs().forEach(pin -> listeners.forEach(listener -> listener.pinSaved(pin)));
+        }
+        return repaired;
+    }
+
+    // keyset pagination on id: pass the nextCursor of the previous page as "after"
+    public PinPageDTO getPinPage(Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<PinResponseDTO> pins = pinRepository.findDTOsAfter(after == null ? 0L : after, Limit.of(limit));
+        Long nextCursor = pins.size() == limit ? pins.get(pins.size() - 1).getId() : null;
+        return new PinPageDTO(pins, nextCursor);
+    }
+
+    // hands every pin to the action one at a time while reading from a database cursor.
+    // The rows are DTO projections, so nothing accumulates in the persistence context
+    @Transactional(readOnly = true)
+    public void forEachPin(Consumer<PinResponseDTO> action) {
+        try (Stream<PinResponseDTO> pins = pinRepository.streamAllDTOs()) {
+            pins.forEach(action);
+        }
+    }
+
+    public List<PinResponseDTO> getPinsInViewport(double minLat, double minLon, double maxLat, double maxLon) {
+        return spatialIndex.query(minLat, minLon, maxLat, maxLon);
+    }
+
+    public List<PinClusterDTO> getClusters(int zoom, double minLat, double minLon, double maxLat, double maxLon) {
+        return clusterIndex.query(zoom, minLat, minLon, maxLat, maxLon);
+    }
+
+    // the k pins closest to the point, nearest first; maxKm null means no distance limit
+    public List<PinNearbyDTO> getNearbyPins(double latitude, double longitude, int k, Double maxKm) {
+        if (k < 1 || k > MAX_NEARBY_RESULTS) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_NEARBY_RESULTS);
+        }
+        return spatialIndex.nearest(latitude, longitude, k, maxKm == null ? Double.POSITIVE_INFINITY : maxKm);
+    }
+
+    // keyword search over titles and descriptions, best match first
+    public List<PinResponseDTO> searchPins(String query, int limit) {
+        checkSearchLimit(limit);
+        return searchIndex.search(query, limit);
+    }
+
+    // same, limited to the box; minLon > maxLon crosses the antimeridian as in getPinsInViewport.
+    // When the query words are common but the box holds few pins, checking the box's pins one by one
+    // is cheaper than walking the postings, so the spatial index is asked first
+    public List<PinResponseDTO> searchPins(String query, double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        checkSearchLimit(limit);
+        long postings = searchIndex.estimateMatches(query);
+        if (postings > SPATIAL_FIRST_MIN_POSTINGS) {
+            int maxPins = (int) Math.min(Integer.MAX_VALUE, postings / SPATIAL_FIRST_COST_RATIO);
+            Optional<List<PinResponseDTO>> inBox = spatialIndex.queryAtMost(minLat, minLon, maxLat, maxLon, maxPins);
+            if (inBox.isPresent()) {
+                return searchIndex.searchAmong(query, inBox.get(), limit);
+            }
+        }
+        return searchIndex.search(query, minLat, minLon, maxLat, maxLon, limit);
+    }
+
+    public byte[] getTile(int z, int x, int y) {
+        return tileCache.tile(z, x, y);
+    }
+
+    private static void checkSearchLimit(int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+    }
+
+    // cached, so read from the primary
+    @Cacheable(cacheNames = CacheConfig.PINS, key = "#id")
+    @Transactional(readOnly = true)
     public PinResponseDTO getPinById(Long id) {
-        return pinRepository.findById(id)
-                .map(PinResponseDTO::new)
+        return ReplicaRoutingDataSource.readFromPrimary(() -> pinRepository.findDTOById(id))
                 .orElseThrow(() -> new RuntimeException("Pin not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public List<PinResponseDTO> getPinByUserId(Long userId) {
-        List<Pin> pins = pinRepository.findByUserId(userId);
+        List<PinResponseDTO> pins = pinRepository.findDTOsByUserId(userId);
         if (pins.isEmpty()) {
             throw new RuntimeException("No pins found for user id: " + userId);
         }
-        return pins.stream()
-                .map(PinResponseDTO::new)
-                .collect(Collectors.toList());
+        return pins;
     }
 
     public PinResponseDTO createPin(PinCreateDTO dto) {
 
         User user = userRepository.findById(dto.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + dto.getUserId()));
-                
+
+        Pin pin = pinRepository.save(toPin(dto, user));
+        PinResponseDTO created = new PinResponseDTO(pin);
+        listeners.forEach(listener -> listener.pinCreated(created));
+        return created;
+    }
+
+    // creates many pins in one transaction. Each distinct user is loaded once, invalid items are
+    // reported in the result instead of failing the batch, and the inserts go out as JDBC batches
+    public List<PinBatchResultDTO> createPins(List<PinCreateDTO> dtos) {
+        if (dtos.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can contain at most " + maxBatchSize + " pins");
+        }
+        // null items are rejected by validate below, they must not fail the batch here
+        List<Long> userIds = dtos.stream()
+                .filter(Objects::nonNull)
+                .map(PinCreateDTO::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        PinBatchResultDTO[] results = new PinBatchResultDTO[dtos.size()];
+        List<Integer> accepted = new ArrayList<>();
+        List<Pin> pins = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            PinCreateDTO dto = dtos.get(i);
+            User user = dto == null || dto.getUserId() == null ? null : users.get(dto.getUserId());
+            String error = validate(dto, user);
+            if (error != null) {
+                results[i] = new PinBatchResultDTO(i, error);
+                continue;
+            }
+            accepted.add(i);
+            pins.add(toPin(dto, user));
+        }
+
+        List<Pin> saved = pinRepository.saveAll(pins);
+        for (int i = 0; i < saved.size(); i++) {
+            PinResponseDTO created = new PinResponseDTO(saved.get(i));
+            results[accepted.get(i)] = new PinBatchResultDTO(accepted.get(i), created);
+            listeners.forEach(listener -> listener.pinCreated(created));
+        }
+        return List.of(results);
+    }
+
+    private static String validate(PinCreateDTO dto, User user) {
+        if (dto == null) {
+            return "Pin is missing";
+        }
+        if (user == null) {
+            return "User not found with id: " + dto.getUserId();
+        }
+        if (Double.isNaN(dto.getLatitude()) || dto.getLatitude() < -90 || dto.getLatitude() > 90) {
+            return "Latitude must be between -90 and 90";
+        }
+        if (Double.isNaN(dto.getLongitude()) || dto.getLongitude() < -180 || dto.getLongitude() > 180) {
+            return "Longitude must be between -180 and 180";
+        }
+        return null;
+    }
+
+    private static Pin toPin(PinCreateDTO dto, User user) {
         Pin pin = new Pin();
         pin.setTitle(dto.getTitle());
         pin.setDescription(dto.getDescription());
@@ -59,19 +296,18 @@ public class PinService {
         pin.setLongitude(dto.getLongitude());
         pin.setImageUrl(dto.getImageUrl());
         pin.setUser(user);
-
-        pin = pinRepository.save(pin);
-        return new PinResponseDTO(pin);
+        return pin;
     }
 
     public boolean isPinOwner(Long pinId, String username) {
-        Pin pin = pinRepository.findById(pinId)
+        PinResponseDTO pin = pinRepository.findDTOById(pinId)
                 .orElseThrow(() -> new RuntimeException("Pin not found with id: " + pinId));
-        return pin.getUser().getUsername().equals(username);
+        return pin.getUsername().equals(username);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PINS, key = "#id")
     public PinResponseDTO updatePin(Long id, PinUpdateDTO dto) {
-        Pin pin = pinRepository.findById(id)
+        Pin pin = pinRepository.findWithUserById(id)
                 .orElseThrow(() -> new RuntimeException("Pin not found with id: " + id));
         pin.setTitle(dto.getTitle());
         pin.setDescription(dto.getDescription());
@@ -81,10 +317,50 @@ public class PinService {
         }
         
         pin = pinRepository.save(pin);
-        return new PinResponseDTO(pin);
+        PinResponseDTO updated = new PinResponseDTO(pin);
+        listeners.forEach(listener -> listener.pinUpdated(updated));
+        return updated;
+    }
+
+    // stores the upload and points the pin's imageUrl at it; the thumbnail follows in the background
+    @CacheEvict(cacheNames = CacheConfig.PINS, key = "#id")
+    public PinResponseDTO attachImage(Long id, InputStream image) throws IOException {
+        Pin pin = pinRepository.findWithUserById(id)
+                .orElseThrow(() -> new RuntimeException("Pin not found with id: " + id));
+        pin.setImageUrl(imageStore.store(image));
+
+        pin = pinRepository.save(pin);
+        PinResponseDTO updated = new PinResponseDTO(pin);
+        listeners.forEach(listener -> listener.pinUpdated(updated));
+        return updated;
     }
 
     public void deletePin(Long id) {
-        pinRepository.deleteById(id);
+        pinRepository.findDTOById(id).ifPresent(pin -> deletePins(List.of(pin)));
+    }
+
+    // two statements in one transaction, comments then pins, however many comments there are; nothing is loaded
+    // for the orphanRemoval cascade on Pin.comments. Caches and listeners are told once, after the commit
+    public void deletePins(List<PinResponseDTO> pins) {
+        if (pins.isEmpty()) {
+            return;
+        }
+        List<Long> ids = pins.stream().map(PinResponseDTO::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.deleteByPinIds(ids);
+            pinRepository.deleteByIds(ids);
+        });
+        evict(ids);
+        listeners.forEach(listener -> listener.pinsDeleted(pins));
+    }
+
+    // single pins and their comment threads, for writes that bypass the @CacheEvict annotations
+    public void evict(Collection<Long> pinIds) {
+        for (String cacheName : List.of(CacheConfig.PINS, CacheConfig.PIN_COMMENTS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                pinIds.forEach(cache::evict);
+            }
+        }
     }
 }
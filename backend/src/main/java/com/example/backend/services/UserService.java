@@ -1,22 +1,61 @@
 package com.example.backend.services;
 
 import com.example.backend.models.User;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.backend.CacheConfig;
+import com.example.backend.DTOs.PinResponseDTO;
 import com.example.backend.DTOs.UserCreateRequestDTO;
 import com.example.backend.DTOs.UserResponseDTO;
+import com.example.backend.DTOs.UserSummaryDTO;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.PinRepository;
 import com.example.backend.repositories.UserRepository;
+import com.example.backend.routing.ReplicaRoutingDataSource;
 
 @Service
 public class UserService {
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
+    private final PinRepository pinRepository;
+    private final CommentRepository commentRepository;
+    private final PinService pinService;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final List<PinChangeListener> pinListeners;
+    private final int deleteChunkSize;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PinRepository pinRepository, CommentRepository commentRepository,
+                       PinService pinService, PasswordEncoder passwordEncoder, PasswordVerifier passwordVerifier,
+                       TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                       List<PinChangeListener> pinListeners,
+                       @Value("${users.delete.chunk-size:1000}") int deleteChunkSize) {
         this.userRepository = userRepository;
+        this.pinRepository = pinRepository;
+        this.commentRepository = commentRepository;
+        this.pinService = pinService;
         this.passwordEncoder = passwordEncoder;
+        this.passwordVerifier = passwordVerifier;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.pinListeners = pinListeners;
+        this.deleteChunkSize = deleteChunkSize;
     }
 
     // service to create a new user
@@ -34,12 +73,26 @@ public class UserService {
         return new UserResponseDTO(savedUser);
     }
 
-    // service to get all users
-    public List<UserResponseDTO> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-                .map(UserResponseDTO::new)
-                .collect(Collectors.toList());
+    // service to get one page of users with their pin counts
+    @Transactional(readOnly = true)
+    public List<UserSummaryDTO> getAllUsers(int page, int size) {
+        return userRepository.findSummaries(pageRequest(page, size));
+    }
+
+    // service to get one page of a user's pins
+    public List<PinResponseDTO> getUserPins(Long id, int page, int size) {
+        List<PinResponseDTO> pins = pinRepository.findDTOsByUserId(id, pageRequest(page, size));
+        if (pins.isEmpty() && !userRepository.existsById(id)) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        return pins;
+    }
+
+    private static PageRequest pageRequest(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(page, size);
     }
 
     // service to get a user by ID
@@ -49,23 +102,33 @@ public class UserService {
         return new UserResponseDTO(user);
     }
 
-    // service to validate login
-    public UserResponseDTO validateLogin(String usernameOrEmail, String password) {
-        var userOpt = userRepository.findByUsername(usernameOrEmail);
-        if (!userOpt.isPresent()) {
-            userOpt = userRepository.findByEmail(usernameOrEmail);
-        }
-        
-        User user = userOpt.orElseThrow(() -> new RuntimeException("User not found with username/email: " + usernameOrEmail));
-        
-        if (!passwordEncoder.matches(password, user.getPassword())) { // Verify hashed password
-            throw new RuntimeException("Invalid password");
-        }
-        
-        return new UserResponseDTO(user);
+    // service to validate login. Only the credentials are read before the BCrypt check on the PasswordVerifier pool,
+    // and the pins only after a match. Both are read-only repository transactions of their own, so no connection is
+    // held while a login waits for the pool, and no entity is touched off the request thread
+    public CompletableFuture<UserResponseDTO> validateLogin(String usernameOrEmail, String password) {
+        UserRepository.LoginCredentials user = userRepository.findCredentialsByLogin(usernameOrEmail, Limit.of(1)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("User not found with username/email: " + usernameOrEmail));
+
+        return passwordVerifier.matches(password, user.getPassword()) // Verify hashed password
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new RuntimeException("Invalid password");
+                    }
+                    return new UserResponseDTO(user.getId(), user.getUsername(), user.getEmail(),
+                            pinRepository.findDTOsByUserId(user.getId()));
+                });
+    }
+
+    // the username of an existing user, cached and so read from the primary; throws like getUserById when there is no such user
+    @Cacheable(cacheNames = CacheConfig.USERNAMES, key = "#id")
+    public String getUsername(Long id) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findUsernameById(id))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
     // service to update a user
+    @CacheEvict(cacheNames = CacheConfig.USERNAMES, key = "#id")
     public UserResponseDTO updateUser(Long id, UserCreateRequestDTO dto){
         User user = userRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -76,8 +139,55 @@ public class UserService {
         return new UserResponseDTO(updatedUser);
     }
 
-    // service to delete a user
+    // service to delete a user with their pins and comments. One transaction of a few set-based statements: the
+    // user's comments come off other pins' counts, then the comments on the user's pins, the user's own comments,
+    // the pins and the user are deleted. Caches and pin listeners are told once, after the commit
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        DeletedUser deleted = transactionTemplate.execute(status -> {
+            User user = userRepository.lockById(id).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            List<PinResponseDTO> pins = pinRepository.findDTOsByUserId(id);
+            List<CommentRepository.PinCommentCount> comments = commentRepository.countOnOtherPinsByUser(id);
+            pinRepository.subtractCommentsOfUser(id);
+            commentRepository.deleteOnPinsOfUser(id);
+            commentRepository.deleteByUserId(id);
+            pinRepository.deleteByUserId(id);
+            userRepository.delete(user);
+            return new DeletedUser(pins, comments);
+        });
+        // evicted by hand, deleteUserInBackground calls this method directly
+        Cache usernames = cacheManager.getCache(CacheConfig.USERNAMES);
+        if (usernames != null) {
+            usernames.evict(id);
+        }
+        if (deleted == null) {
+            return;
+        }
+
+        List<Long> pinIds = new ArrayList<>();
+        deleted.pins().forEach(pin -> pinIds.add(pin.getId()));
+        deleted.comments().forEach(count -> pinIds.add(count.getPinId()));
+        pinService.evict(pinIds);
+        pinListeners.forEach(listener -> listener.pinsDeleted(deleted.pins()));
+        for (CommentRepository.PinCommentCount count : deleted.comments()) {
+            pinListeners.forEach(listener -> listener.commentCountChanged(count.getPinId(), (int) -count.getComments()));
+        }
+    }
+
+    // for users with very many pins: the pins go users.delete.chunk-size at a time, each chunk in its own short
+    // transaction, and deleteUser then removes the rest. The user's pins disappear from the map chunk by chunk
+    @Async
+    public void deleteUserInBackground(Long id) {
+        List<PinResponseDTO> chunk;
+        do {
+            chunk = pinRepository.findDTOsByUserId(id, PageRequest.of(0, deleteChunkSize));
+            pinService.deletePins(chunk);
+        } while (chunk.size() == deleteChunkSize);
+        deleteUser(id);
+    }
+
+    private record DeletedUser(List<PinResponseDTO> pins, List<CommentRepository.PinCommentCount> comments) {
     }
 }
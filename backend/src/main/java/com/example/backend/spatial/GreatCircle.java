@@ -0,0 +1,50 @@
+package com.example.backend.spatial;
+
+// Distances on a spherical earth (mean radius), in kilometres
+final class GreatCircle {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GreatCircle() {
+    }
+
+    // haversine, accurate for short and antipodal distances alike
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // shortest distance from the point to any point of the lat/lon rectangle, 0 inside it.
+    // Along a parallel the distance only grows with the longitude gap, so outside the rectangle's longitudes the
+    // nearest point is on the closer of its two meridian edges; a meridian is a great circle, so that point is the
+    // foot of the perpendicular from the point, clamped to the edge
+    static double distanceToCellKm(double latitude, double longitude,
+                                   double minLat, double maxLat, double minLon, double maxLon) {
+        double toMin = longitudeGap(longitude, minLon);
+        double toMax = longitudeGap(longitude, maxLon);
+        boolean insideLongitudes = longitude >= minLon && longitude <= maxLon;
+        if (insideLongitudes) {
+            double nearestLat = Math.max(minLat, Math.min(maxLat, latitude));
+            return Math.toRadians(Math.abs(latitude - nearestLat)) * EARTH_RADIUS_KM;
+        }
+        double edgeLon = toMin <= toMax ? minLon : maxLon;
+        double gap = Math.toRadians(Math.min(toMin, toMax));
+        double footLat;
+        if (gap >= Math.PI / 2) {
+            // the perpendicular lands on the far half of the great circle; on this meridian the nearest point is a pole
+            footLat = latitude >= 0 ? 90 : -90;
+        } else {
+            footLat = Math.toDegrees(Math.atan(Math.tan(Math.toRadians(latitude)) / Math.cos(gap)));
+        }
+        double nearestLat = Math.max(minLat, Math.min(maxLat, footLat));
+        return distanceKm(latitude, longitude, nearestLat, edgeLon);
+    }
+
+    // degrees between two longitudes the short way round, 0..180
+    private static double longitudeGap(double a, double b) {
+        double gap = Math.abs(a - b) % 360;
+        return gap > 180 ? 360 - gap : gap;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.backend.spatial;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes Mapbox Vector Tiles (spec 2.1) with point layers only, directly as protobuf, so no tile library is needed.
+// Positions are projected to web mercator and quantized to EXTENT units inside tile z/x/y
+public final class MvtEncoder {
+    public static final int EXTENT = 4096;
+
+    // protobuf wire types
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int POINT = 1;
+    private static final int MOVE_TO_ONE = (1 & 0x7) | (1 << 3);
+
+    private final int z;
+    private final int x;
+    private final int y;
+    private final List<Layer> layers = new ArrayList<>();
+
+    public MvtEncoder(int z, int x, int y) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+    }
+
+    public Layer layer(String name) {
+        Layer layer = new Layer(name);
+        layers.add(layer);
+        return layer;
+    }
+
+    public byte[] encode() {
+        Output tile = new Output();
+        for (Layer layer : layers) {
+            if (!layer.features.isEmpty()) {
+                tile.message(3, layer.encode());
+            }
+        }
+        return tile.toByteArray();
+    }
+
+    public final class Layer {
+        private final String name;
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private final List<Output> features = new ArrayList<>();
+
+        private Layer(String name) {
+            this.name = name;
+        }
+
+        // attribute values may be strings or whole numbers; null attributes are left out
+        public void point(Long id, double latitude, double longitude, Map<String, Object> attributes) {
+            Output feature = new Output();
+            if (id != null) {
+                feature.varint(1, id);
+            }
+            Output tags = new Output();
+            attributes.forEach((key, value) -> {
+                if (value != null) {
+                    Object normalized = value instanceof Number number ? (Object) number.longValue() : value.toString();
+                    tags.rawVarint(keys.computeIfAbsent(key, k -> keys.size()));
+                    tags.rawVarint(values.computeIfAbsent(normalized, v -> values.size()));
+                }
+            });
+            feature.bytes(2, tags.toByteArray());
+            feature.varint(3, POINT);
+
+            double scale = (double) (1L << z) * EXTENT;
+            long px = Math.round(WebMercator.x(longitude) * scale - (double) x * EXTENT);
+            long py = Math.round(WebMercator.y(latitude) * scale - (double) y * EXTENT);
+            Output geometry = new Output();
+            geometry.rawVarint(MOVE_TO_ONE);
+            geometry.rawVarint(zigZag(px));
+            geometry.rawVarint(zigZag(py));
+            feature.bytes(4, geometry.toByteArray());
+            features.add(feature);
+        }
+
+        private Output encode() {
+            Output layer = new Output();
+            layer.varint(15, 2);
+            layer.string(1, name);
+            for (Output feature : features) {
+                layer.message(2, feature);
+            }
+            for (String key : keys.keySet()) {
+                layer.string(3, key);
+            }
+            for (Object value : values.keySet()) {
+                Output encoded = new Output();
+                if (value instanceof Number number) {
+                    long whole = number.longValue();
+                    if (whole >= 0) {
+                        encoded.varint(5, whole);
+                    } else {
+                        encoded.varint(6, zigZag(whole));
+                    }
+                } else {
+                    encoded.string(1, value.toString());
+                }
+                layer.message(4, encoded);
+            }
+            layer.varint(5, EXTENT);
+            return layer;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // just enough of the protobuf wire format for the tile messages
+    private static final class Output extends ByteArrayOutputStream {
+        void varint(int field, long value) {
+            rawVarint((long) field << 3 | VARINT);
+            rawVarint(value);
+        }
+
+        void string(int field, String value) {
+            bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void message(int field, Output message) {
+            rawVarint((long) field << 3 | LENGTH_DELIMITED);
+            rawVarint(message.size());
+            message.writeTo(this);
+        }
+
+        void bytes(int field, byte[] value) {
+            rawVarint((long) field << 3 | LENGTH_DELIMITED);
+            rawVarint(value.length);
+            write(value, 0, value.length);
+        }
+
+        void rawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeTo(Output target) {
+            target.write(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.backend.spatial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.DTOs.PinClusterDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.services.PinChangeListener;
+
+// Precomputed marker clusters for every zoom level. Each level is a web mercator grid with
+// CELL_BITS extra bits over the tile grid (4x4 cells per 256px tile, so roughly 64px per cluster).
+// A cell at zoom z is exactly the union of its four children at z + 1, so adding or removing
+// a pin only touches the one cell that contains it on each level
+@Component
+@Order(PinChangeListener.INDEX_ORDER)
+public class PinClusterIndex implements PinChangeListener {
+    private static final int CELL_BITS = 2;
+
+    private final int maxZoom;
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, double[]> positions = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PinClusterIndex(@Value("${pins.clusters.max-zoom:16}") int maxZoom) {
+        if (maxZoom < 0 || maxZoom + CELL_BITS > 30) {
+            throw new IllegalArgumentException("pins.clusters.max-zoom must be between 0 and " + (30 - CELL_BITS) + ": " + maxZoom);
+        }
+        this.maxZoom = maxZoom;
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    private static final class Cell {
+        int count;
+        double latitudeSum;
+        double longitudeSum;
+        Long representativeId;
+        // only filled on the finest level, coarser levels pick a representative from their children
+        Set<Long> members;
+    }
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        lock.writeLock().lock();
+        try {
+            double[] previous = positions.get(pin.getId());
+            if (previous != null) {
+                if (previous[0] == pin.getLatitude() && previous[1] == pin.getLongitude()) {
+                    return;
+                }
+                remove(pin.getId());
+            }
+            insert(pin.getId(), pin.getLatitude(), pin.getLongitude());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        lock.writeLock().lock();
+        try {
+            remove(pin.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void pinsDeleted(Collection<PinResponseDTO> pins) {
+        lock.writeLock().lock();
+        try {
+            pins.forEach(pin -> remove(pin.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            levels.forEach(Map::clear);
+            positions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    // clusters whose cell overlaps the box. Zoom levels past max-zoom reuse the finest level,
+    // and minLon > maxLon means the box crosses the antimeridian
+    public List<PinClusterDTO> query(int zoom, double minLat, double minLon, double maxLat, double maxLon) {
+        if (zoom < 0) {
+            throw new IllegalArgumentException("Zoom must not be negative: " + zoom);
+        }
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+        int level = Math.min(zoom, maxZoom);
+        int bits = level + CELL_BITS;
+
+        List<PinClusterDTO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = levels.get(level);
+            // mercator y grows southwards
+            int minY = cellY(maxLat, bits);
+            int maxY = cellY(minLat, bits);
+            if (minLon <= maxLon) {
+                collect(cells, cellX(minLon, bits), cellX(maxLon, bits), minY, maxY, result);
+            } else {
+                collect(cells, cellX(minLon, bits), (1 << bits) - 1, minY, maxY, result);
+                collect(cells, 0, cellX(maxLon, bits), minY, maxY, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // clusters of one level whose cells lie inside slippy-map tile z/x/y; the level's grid must not be coarser than the tile grid
+    public List<PinClusterDTO> queryTile(int z, int x, int y, int level) {
+        int shift = level + CELL_BITS - z;
+        if (level < 0 || level > maxZoom || shift < 0) {
+            throw new IllegalArgumentException("Level " + level + " is coarser than zoom " + z + " tiles");
+        }
+        List<PinClusterDTO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collect(levels.get(level), x << shift, ((x + 1) << shift) - 1, y << shift, ((y + 1) << shift) - 1, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // number of pins in slippy-map tile z/x/y, or -1 past max-zoom + CELL_BITS where no level is fine enough to tell
+    public int countInTile(int z, int x, int y) {
+        int level = Math.max(0, z - CELL_BITS);
+        if (level > maxZoom) {
+            return -1;
+        }
+        int count = 0;
+        for (PinClusterDTO cluster : queryTile(z, x, y, level)) {
+            count += cluster.getCount();
+        }
+        return count;
+    }
+
+    public int getCellBits() {
+        return CELL_BITS;
+    }
+
+    private static void collect(Map<Long, Cell> cells, int minX, int maxX, int minY, int maxY, List<PinClusterDTO> result) {
+        long coveredCells = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (coveredCells > cells.size()) {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int x = (int) (entry.getKey() >>> 32);
+                int y = (int) (long) entry.getKey();
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    result.add(toDTO(entry.getValue()));
+                }
+            }
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                Cell cell = cells.get(key(x, y));
+                if (cell != null) {
+                    result.add(toDTO(cell));
+                }
+            }
+        }
+    }
+
+    private static PinClusterDTO toDTO(Cell cell) {
+        return new PinClusterDTO(cell.latitudeSum / cell.count, cell.longitudeSum / cell.count, cell.count, cell.representativeId);
+    }
+
+    private void insert(Long pinId, double latitude, double longitude) {
+        positions.put(pinId, new double[] {latitude, longitude});
+        int leafBits = maxZoom + CELL_BITS;
+        int leafX = cellX(longitude, leafBits);
+        int leafY = cellY(latitude, leafBits);
+
+        for (int level = maxZoom; level >= 0; level--) {
+            int shift = maxZoom - level;
+            Cell cell = levels.get(level).computeIfAbsent(key(leafX >> shift, leafY >> shift), key -> new Cell());
+            cell.count++;
+            cell.latitudeSum += latitude;
+            cell.longitudeSum += longitude;
+            if (cell.representativeId == null) {
+                cell.representativeId = pinId;
+            }
+            if (level == maxZoom) {
+                if (cell.members == null) {
+                    cell.members = new HashSet<>();
+                }
+                cell.members.add(pinId);
+            }
+        }
+    }
+
+    private void remove(Long pinId) {
+        double[] position = positions.remove(pinId);
+        if (position == null) {
+            return;
+        }
+        int leafBits = maxZoom + CELL_BITS;
+        int leafX = cellX(position[1], leafBits);
+        int leafY = cellY(position[0], leafBits);
+
+        // walk from the finest level up so a coarser cell can take its new representative from an already updated child
+        for (int level = maxZoom; level >= 0; level--) {
+            int shift = maxZoom - level;
+            int x = leafX >> shift;
+            int y = leafY >> shift;
+            Map<Long, Cell> cells = levels.get(level);
+            Cell cell = cells.get(key(x, y));
+            if (cell == null) {
+                continue;
+            }
+            cell.count--;
+            if (cell.count == 0) {
+                cells.remove(key(x, y));
+                continue;
+            }
+            cell.latitudeSum -= position[0];
+            cell.longitudeSum -= position[1];
+            if (level == maxZoom) {
+                cell.members.remove(pinId);
+                if (pinId.equals(cell.representativeId)) {
+                    cell.representativeId = cell.members.iterator().next();
+                }
+            } else if (pinId.equals(cell.representativeId)) {
+                cell.representativeId = representativeOfChildren(level + 1, x, y);
+            }
+        }
+    }
+
+    private Long representativeOfChildren(int childLevel, int parentX, int parentY) {
+        Map<Long, Cell> children = levels.get(childLevel);
+        for (int dx = 0; dx <= 1; dx++) {
+            for (int dy = 0; dy <= 1; dy++) {
+                Cell child = children.get(key(parentX * 2 + dx, parentY * 2 + dy));
+                if (child != null) {
+                    return child.representativeId;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static int cellX(double longitude, int bits) {
+        return WebMercator.cellX(longitude, bits);
+    }
+
+    private static int cellY(double latitude, int bits) {
+        return WebMercator.cellY(latitude, bits);
+    }
+}
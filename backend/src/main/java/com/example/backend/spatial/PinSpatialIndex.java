@@ -0,0 +1,326 @@
+package com.example.backend.spatial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.DTOs.PinNearbyDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.services.PinChangeListener;
+
+// In-memory grid index over pin coordinates. The world is cut into fixed lat/lon cells and every
+// pin lives in exactly one cell, so a viewport query only touches the cells it overlaps instead of the whole table
+@Component
+@Order(PinChangeListener.INDEX_ORDER)
+public class PinSpatialIndex implements PinChangeListener {
+    private final double cellDegrees;
+    private final int columns;
+    private final int rows;
+
+    private final Map<Long, PinResponseDTO> pins = new HashMap<>();
+    private final Map<Integer, Map<Long, PinResponseDTO>> cells = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PinSpatialIndex(@Value("${pins.index.cell-degrees:1.0}") double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("pins.index.cell-degrees must be in (0, 90]: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+    }
+
+    @Override
+    public void pinSaved(PinResponseDTO pin) {
+        put(pin);
+    }
+
+    @Override
+    public void pinDeleted(PinResponseDTO pin) {
+        remove(pin.getId());
+    }
+
+    @Override
+    public void pinsDeleted(Collection<PinResponseDTO> pins) {
+        lock.writeLock().lock();
+        try {
+            pins.forEach(pin -> remove(pin.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // replaces the entry with an updated copy: the indexed instance is shared with the search index, the list
+    // snapshot and change feed events, which read it without this lock
+    @Override
+    public void commentCountChanged(Long pinId, int delta) {
+        lock.writeLock().lock();
+        try {
+            PinResponseDTO pin = pins.get(pinId);
+            if (pin != null) {
+                PinResponseDTO updated = pin.withCommentCount(Math.max(0, pin.getCommentCount() + delta));
+                pins.put(pinId, updated);
+                cells.get(cellOf(pin.getLatitude(), pin.getLongitude())).put(pinId, updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // adds the pin, or moves it if it is already indexed
+    public void put(PinResponseDTO pin) {
+        int cell = cellOf(pin.getLatitude(), pin.getLongitude());
+        lock.writeLock().lock();
+        try {
+            PinResponseDTO previous = pins.put(pin.getId(), pin);
+            if (previous != null) {
+                removeFromCell(cellOf(previous.getLatitude(), previous.getLongitude()), previous.getId());
+            }
+            cells.computeIfAbsent(cell, key -> new HashMap<>()).put(pin.getId(), pin);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long pinId) {
+        lock.writeLock().lock();
+        try {
+            PinResponseDTO previous = pins.remove(pinId);
+            if (previous != null) {
+                removeFromCell(cellOf(previous.getLatitude(), previous.getLongitude()), pinId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pins.clear();
+            cells.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public PinResponseDTO get(Long pinId) {
+        lock.readLock().lock();
+        try {
+            return pins.get(pinId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pins.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // returns every pin inside the box (edges included). When minLon > maxLon the box is taken
+    // to cross the antimeridian, e.g. minLon=170, maxLon=-170 covers 170..180 and -180..-170
+    public List<PinResponseDTO> query(double minLat, double minLon, double maxLat, double maxLon) {
+        return queryAtMost(minLat, minLon, maxLat, maxLon, Integer.MAX_VALUE).orElseThrow();
+    }
+
+    // same as query, but gives up as soon as more than max pins are found and returns empty,
+    // so callers can check whether a box is small enough to work through pin by pin
+    public Optional<List<PinResponseDTO>> queryAtMost(double minLat, double minLon, double maxLat, double maxLon, int max) {
+        checkLatitude(minLat);
+        checkLatitude(maxLat);
+        checkLongitude(minLon);
+        checkLongitude(maxLon);
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+
+        List<PinResponseDTO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            boolean complete = minLon <= maxLon
+                    ? collect(minLat, minLon, maxLat, maxLon, max, result)
+                    : collect(minLat, minLon, maxLat, 180, max, result) && collect(minLat, -180, maxLat, maxLon, max, result);
+            return complete ? Optional.of(result) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the k pins closest to the point by great-circle distance, nearest first, none further than maxKm.
+    // Best-first search over the grid: cells are visited in order of their distance from the point (starting with
+    // its own cell and spreading to neighbours, wrapping at the antimeridian), and a pin is returned once no
+    // unvisited cell can hold anything closer. The cells around a pole share the pole and are reached through
+    // each other, so a search near a pole also finds pins just across it
+    public List<PinNearbyDTO> nearest(double latitude, double longitude, int k, double maxKm) {
+        checkLatitude(latitude);
+        checkLongitude(longitude);
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        if (Double.isNaN(maxKm) || maxKm < 0) {
+            throw new IllegalArgumentException("maxKm must not be negative");
+        }
+
+        List<PinNearbyDTO> result = new ArrayList<>();
+        PriorityQueue<CellBound> frontier = new PriorityQueue<>(Comparator.comparingDouble(CellBound::distanceKm));
+        PriorityQueue<PinNearbyDTO> found = new PriorityQueue<>(Comparator.comparingDouble(PinNearbyDTO::getDistanceKm));
+        Set<Integer> seen = new HashSet<>();
+        int start = cellOf(latitude, longitude);
+        seen.add(start);
+        frontier.add(new CellBound(start, 0));
+
+        lock.readLock().lock();
+        try {
+            while (result.size() < k) {
+                double nextCell = frontier.isEmpty() ? Double.POSITIVE_INFINITY : frontier.peek().distanceKm();
+                while (!found.isEmpty() && found.peek().getDistanceKm() <= nextCell && result.size() < k) {
+                    result.add(found.poll());
+                }
+                if (result.size() == k || frontier.isEmpty()) {
+                    break;
+                }
+
+                int cell = frontier.poll().cell();
+                Map<Long, PinResponseDTO> members = cells.get(cell);
+                if (members != null) {
+                    for (PinResponseDTO pin : members.values()) {
+                        double distance = GreatCircle.distanceKm(latitude, longitude, pin.getLatitude(), pin.getLongitude());
+                        if (distance <= maxKm) {
+                            found.add(new PinNearbyDTO(pin, distance));
+                        }
+                    }
+                }
+                int row = cell / columns;
+                int column = cell % columns;
+                for (int dRow = -1; dRow <= 1; dRow++) {
+                    int neighbourRow = row + dRow;
+                    if (neighbourRow < 0 || neighbourRow >= rows) {
+                        continue;
+                    }
+                    for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                        int neighbour = neighbourRow * columns + Math.floorMod(column + dColumn, columns);
+                        if (seen.add(neighbour)) {
+                            double bound = distanceToCell(latitude, longitude, neighbour);
+                            if (bound <= maxKm) {
+                                frontier.add(new CellBound(neighbour, bound));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private double distanceToCell(double latitude, double longitude, int cell) {
+        int row = cell / columns;
+        int column = cell % columns;
+        double minLat = -90 + row * cellDegrees;
+        double minLon = -180 + column * cellDegrees;
+        return GreatCircle.distanceToCellKm(latitude, longitude,
+                minLat, Math.min(90, minLat + cellDegrees), minLon, Math.min(180, minLon + cellDegrees));
+    }
+
+    private record CellBound(int cell, double distanceKm) {
+    }
+
+    // false once more than max pins have been collected
+    private boolean collect(double minLat, double minLon, double maxLat, double maxLon, int max, List<PinResponseDTO> result) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minColumn = column(minLon);
+        int maxColumn = column(maxLon);
+        long coveredCells = (long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+
+        // a zoomed-out viewport can cover far more cells than are occupied; walk the occupied ones instead
+        if (coveredCells > cells.size()) {
+            for (Map.Entry<Integer, Map<Long, PinResponseDTO>> entry : cells.entrySet()) {
+                int row = entry.getKey() / columns;
+                int column = entry.getKey() % columns;
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn
+                        && !addInside(entry.getValue(), minLat, minLon, maxLat, maxLon, max, result)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Map<Long, PinResponseDTO> cell = cells.get(row * columns + column);
+                if (cell != null && !addInside(cell, minLat, minLon, maxLat, maxLon, max, result)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean addInside(Map<Long, PinResponseDTO> cell, double minLat, double minLon, double maxLat, double maxLon,
+                                     int max, List<PinResponseDTO> result) {
+        for (PinResponseDTO pin : cell.values()) {
+            if (pin.getLatitude() >= minLat && pin.getLatitude() <= maxLat
+                    && pin.getLongitude() >= minLon && pin.getLongitude() <= maxLon) {
+                result.add(pin);
+                if (result.size() > max) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void removeFromCell(int cell, Long pinId) {
+        Map<Long, PinResponseDTO> members = cells.get(cell);
+        if (members != null) {
+            members.remove(pinId);
+            if (members.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private int cellOf(double latitude, double longitude) {
+        return row(latitude) * columns + column(longitude);
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor((longitude + 180) / cellDegrees)));
+    }
+
+    private static void checkLatitude(double latitude) {
+        if (Double.isNaN(latitude) || latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90: " + latitude);
+        }
+    }
+
+    private static void checkLongitude(double longitude) {
+        if (Double.isNaN(longitude) || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180: " + longitude);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend.spatial;
+
+// Web mercator (EPSG:3857) positions as fractions of the world square: x grows eastwards and y southwards,
+// both in [0, 1]. A grid with 2^bits cells per axis is the slippy-map tile grid of zoom level bits
+public final class WebMercator {
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() {
+    }
+
+    public static double x(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    public static double y(double latitude) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(clamped));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    public static int cellX(double longitude, int bits) {
+        return cell(x(longitude), bits);
+    }
+
+    public static int cellY(double latitude, int bits) {
+        return cell(y(latitude), bits);
+    }
+
+    // latitude of the northern edge of row y in a grid with 2^bits rows
+    public static double latitudeOfRow(int y, int bits) {
+        double n = Math.PI * (1 - 2.0 * y / (1 << bits));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    public static double longitudeOfColumn(int x, int bits) {
+        return (double) x / (1 << bits) * 360 - 180;
+    }
+
+    private static int cell(double fraction, int bits) {
+        int size = 1 << bits;
+        return Math.min(size - 1, Math.max(0, (int) Math.floor(fraction * size)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.backend.telemetry;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Counts the SQL statements each request runs. The count goes into the http.server.requests.sql summary
+// (tagged like http.server.requests), into a DEBUG log line, and with telemetry.sql.debug-header into an
+// X-SQL-Statements response header. Requests above telemetry.sql.statement-warn-threshold are logged at WARN
+// and counted in http.server.requests.sql.flagged.
+// The header is written when the response commits, so statements run while streaming the body are only in the log
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTelemetryFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    private static final Logger log = LoggerFactory.getLogger(RequestTelemetryFilter.class);
+
+    private final SqlTelemetry sqlTelemetry;
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    private final boolean debugHeader;
+
+    public RequestTelemetryFilter(SqlTelemetry sqlTelemetry, MeterRegistry meterRegistry,
+                                  @Value("${telemetry.sql.statement-warn-threshold:25}") int warnThreshold,
+                                  @Value("${telemetry.sql.debug-header:false}") boolean debugHeader) {
+        this.sqlTelemetry = sqlTelemetry;
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+        this.debugHeader = debugHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlTelemetry.RequestStats stats = sqlTelemetry.begin();
+        long start = System.nanoTime();
+        HttpServletResponse target = debugHeader ? new StatementCountResponse(response, stats) : response;
+        try {
+            chain.doFilter(request, target);
+            if (debugHeader && !response.isCommitted()) {
+                response.setHeader(STATEMENTS_HEADER, Integer.toString(stats.getStatements()));
+            }
+        } finally {
+            sqlTelemetry.end();
+            record(request, response, stats, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlTelemetry.RequestStats stats, long nanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("SQL statements per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+
+        if (stats.getStatements() > warnThreshold) {
+            Counter.builder("http.server.requests.sql.flagged")
+                    .description("Requests that ran more than telemetry.sql.statement-warn-threshold statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} ran {} SQL statements ({}ms in SQL), threshold is {}", request.getMethod(), uri,
+                    stats.getStatements(), TimeUnit.NANOSECONDS.toMillis(stats.getNanos()), warnThreshold);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {} in {}ms, {} SQL statements ({}ms)", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), TimeUnit.NANOSECONDS.toMillis(nanos), stats.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getNanos()));
+        }
+    }
+
+    private static final class StatementCountResponse extends OnCommittedResponseWrapper {
+        private final SqlTelemetry.RequestStats stats;
+
+        StatementCountResponse(HttpServletResponse response, SqlTelemetry.RequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(STATEMENTS_HEADER, Integer.toString(stats.getStatements()));
+        }
+    }
+}
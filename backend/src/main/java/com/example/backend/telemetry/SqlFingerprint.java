@@ -0,0 +1,33 @@
+package com.example.backend.telemetry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Normalized form of a SQL statement, so the same query with different values (or a different number of
+// IN-list or multi-row VALUES entries) always maps to the same text and short id. No bind values survive
+public final class SqlFingerprint {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?:e[+-]?\\d+)?(?![\\w.])");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUE_ROWS = Pattern.compile("(values\\s*\\(\\?\\))(?:\\s*,\\s*\\(\\?\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase();
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?)");
+        return VALUE_ROWS.matcher(normalized).replaceAll("$1");
+    }
+
+    // 8 hex digits, stable across runs and instances so log lines can be grouped and compared
+    public static String id(String normalizedSql) {
+        CRC32 crc = new CRC32();
+        crc.update(normalizedSql.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+}
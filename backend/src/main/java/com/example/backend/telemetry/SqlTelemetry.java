@@ -0,0 +1,76 @@
+package com.example.backend.telemetry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Receives every JDBC execution from TimedDataSource. It counts statements for the request running on the
+// current thread (RequestTelemetryFilter reads the count), times all of them, and logs the ones slower than
+// telemetry.sql.slow-query-ms under their fingerprint instead of the raw SQL
+@Component
+public class SqlTelemetry {
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.example.backend.telemetry.SLOW_QUERY");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryNanos;
+    private final Timer statementTimer;
+    private final ThreadLocal<RequestStats> current = new ThreadLocal<>();
+
+    public SqlTelemetry(MeterRegistry meterRegistry, @Value("${telemetry.sql.slow-query-ms:200}") long slowQueryMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.statementTimer = Timer.builder("sql.statements")
+                .description("JDBC statement executions")
+                .register(meterRegistry);
+    }
+
+    // statements and time spent in them by one request
+    public static final class RequestStats {
+        private int statements;
+        private long nanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    public RequestStats begin() {
+        RequestStats stats = new RequestStats();
+        current.set(stats);
+        return stats;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    void executed(String sql, long nanos) {
+        statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestStats stats = current.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += nanos;
+        }
+        if (nanos >= slowQueryNanos && sql != null) {
+            String fingerprint = SqlFingerprint.normalize(sql);
+            String id = SqlFingerprint.id(fingerprint);
+            Counter.builder("sql.slow.queries")
+                    .description("Statements slower than telemetry.sql.slow-query-ms, by fingerprint")
+                    .tag("fingerprint", id)
+                    .register(meterRegistry)
+                    .increment();
+            slowQueryLog.warn("Slow query {}ms [{}] {}", TimeUnit.NANOSECONDS.toMillis(nanos), id, fingerprint);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.telemetry;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Puts TimedDataSource in front of the connection pool. HikariCP pool metrics (hikaricp.connections.*),
+// Hibernate statistics (hibernate.*) and http.server.requests histograms come from Spring Boot's own
+// metrics support, configured in application.properties
+@Configuration
+public class TelemetryConfig {
+
+    // static so the post-processor exists before the DataSource is created; SqlTelemetry is looked up lazily
+    @Bean
+    static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<SqlTelemetry> sqlTelemetry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? TimedDataSource.wrap(dataSource, sqlTelemetry) : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.telemetry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+// Thin JDK proxies around the pool's DataSource, its connections and statements. Every execute* call is timed
+// and reported to SqlTelemetry with the SQL it ran. Everything else passes straight through to the pool
+final class TimedDataSource {
+
+    private TimedDataSource() {
+    }
+
+    static DataSource wrap(DataSource target, ObjectProvider<SqlTelemetry> telemetry) {
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            Object result = invoke(proxy, target, method, args);
+            return result instanceof Connection connection && method.getName().equals("getConnection")
+                    ? wrapConnection(connection, telemetry)
+                    : result;
+        });
+    }
+
+    private static Connection wrapConnection(Connection target, ObjectProvider<SqlTelemetry> telemetry) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(proxy, target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(CallableStatement.class, statement, (String) args[0], telemetry);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrapStatement(PreparedStatement.class, statement, (String) args[0], telemetry);
+            }
+            if (result instanceof Statement statement) {
+                return wrapStatement(Statement.class, statement, null, telemetry);
+            }
+            return result;
+        });
+    }
+
+    // sql is null for plain statements, which pass it to execute* instead
+    private static <T extends Statement> T wrapStatement(Class<T> type, T target, String sql, ObjectProvider<SqlTelemetry> telemetry) {
+        return proxy(type, target, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(proxy, target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(proxy, target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                SqlTelemetry sqlTelemetry = telemetry.getIfAvailable();
+                if (sqlTelemetry != null) {
+                    sqlTelemetry.executed(args != null && args.length > 0 && args[0] instanceof String text ? text : sql, nanos);
+                }
+            }
+        });
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // identity of the proxy, not of the pooled object behind it
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.backend.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+// Compact binary form of a pin list, served for Accept: application/vnd.pins.columnar instead of JSON.
+// The pins are written column by column, each column as one run:
+//   "PIN1", count, user table (count, then userId + username per distinct user, in first-seen order),
+//   id (zigzag delta), latitude and longitude (4-byte fixed point, 1e-7 degrees), user (index into the table),
+//   createdAt (zigzag millisecond delta + 1, 0 for none), commentCount, title, description, imageUrl.
+// Numbers are unsigned LEB128 varints unless noted, strings are varint (UTF-8 length + 1) then the bytes, 0 for null.
+// Coordinates lose precision below about a centimetre and timestamps below a millisecond
+public final class PinColumnarCodec {
+    public static final String MEDIA_TYPE = "application/vnd.pins.columnar";
+
+    private static final byte[] MAGIC = {'P', 'I', 'N', '1'};
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private PinColumnarCodec() {
+    }
+
+    public static byte[] encode(List<PinResponseDTO> pins) {
+        int count = pins.size();
+        Output out = new Output(count * 48 + 64);
+        out.bytes(MAGIC);
+        out.varint(count);
+
+        // usernames are interned: each distinct user is written once and pins refer to it by index
+        Map<Long, Integer> userIndexes = new HashMap<>();
+        List<PinResponseDTO> users = new ArrayList<>();
+        int[] userColumn = new int[count];
+        for (int i = 0; i < count; i++) {
+            PinResponseDTO pin = pins.get(i);
+            userColumn[i] = userIndexes.computeIfAbsent(pin.getUserId(), userId -> {
+                users.add(pin);
+                return users.size() - 1;
+            });
+        }
+        out.varint(users.size());
+        for (PinResponseDTO user : users) {
+            out.varint(user.getUserId());
+            out.string(user.getUsername());
+        }
+
+        long previousId = 0;
+        for (PinResponseDTO pin : pins) {
+            out.varint(zigZag(pin.getId() - previousId));
+            previousId = pin.getId();
+        }
+        for (PinResponseDTO pin : pins) {
+            out.fixed32((int) Math.round(pin.getLatitude() * COORDINATE_SCALE));
+        }
+        for (PinResponseDTO pin : pins) {
+            out.fixed32((int) Math.round(pin.getLongitude() * COORDINATE_SCALE));
+        }
+        for (int user : userColumn) {
+            out.varint(user);
+        }
+        long previousMillis = 0;
+        for (PinResponseDTO pin : pins) {
+            if (pin.getCreatedAt() == null) {
+                out.varint(0);
+            } else {
+                long millis = pin.getCreatedAt().toEpochMilli();
+                out.varint(zigZag(millis - previousMillis) + 1);
+                previousMillis = millis;
+            }
+        }
+        for (PinResponseDTO pin : pins) {
+            out.varint(pin.getCommentCount());
+        }
+        for (PinResponseDTO pin : pins) {
+            out.string(pin.getTitle());
+        }
+        for (PinResponseDTO pin : pins) {
+            out.string(pin.getDescription());
+        }
+        for (PinResponseDTO pin : pins) {
+            out.string(pin.getImageUrl());
+        }
+        return out.toByteArray();
+    }
+
+    public static List<PinResponseDTO> decode(byte[] bytes) {
+        Input in = new Input(bytes);
+        if (!Arrays.equals(in.bytes(MAGIC.length), MAGIC)) {
+            throw new IllegalArgumentException("Not a columnar pin list");
+        }
+        int count = in.count();
+        int userCount = in.count();
+        // every pin and user takes at least a byte, so larger counts can only come from a corrupt header
+        if (count > bytes.length || userCount > bytes.length) {
+            throw new IllegalArgumentException("Corrupt columnar pin list header");
+        }
+        long[] userIds = new long[userCount];
+        String[] usernames = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            userIds[i] = in.varint();
+            usernames[i] = in.string();
+        }
+
+        long[] ids = new long[count];
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += unZigZag(in.varint());
+            ids[i] = id;
+        }
+        double[] latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = in.fixed32() / COORDINATE_SCALE;
+        }
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = in.fixed32() / COORDINATE_SCALE;
+        }
+        int[] users = new int[count];
+        for (int i = 0; i < count; i++) {
+            users[i] = in.count();
+            if (users[i] >= userCount) {
+                throw new IllegalArgumentException("Unknown user index " + users[i]);
+            }
+        }
+        Instant[] createdAt = new Instant[count];
+        long millis = 0;
+        for (int i = 0; i < count; i++) {
+            long value = in.varint();
+            if (value != 0) {
+                millis += unZigZag(value - 1);
+                createdAt[i] = Instant.ofEpochMilli(millis);
+            }
+        }
+        int[] commentCounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            commentCounts[i] = in.count();
+        }
+        String[] titles = in.strings(count);
+        String[] descriptions = in.strings(count);
+        String[] imageUrls = in.strings(count);
+
+        List<PinResponseDTO> pins = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pins.add(new PinResponseDTO(ids[i], titles[i], descriptions[i], latitudes[i], longitudes[i], imageUrls[i],
+                    userIds[users[i]], usernames[users[i]], createdAt[i], commentCounts[i]));
+        }
+        return pins;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+        private byte[] buf;
+        private int size;
+
+        Output(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void fixed32(int value) {
+            ensure(4);
+            buf[size++] = (byte) (value >>> 24);
+            buf[size++] = (byte) (value >>> 16);
+            buf[size++] = (byte) (value >>> 8);
+            buf[size++] = (byte) value;
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            bytes(utf8);
+        }
+
+        void bytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, buf, size, value.length);
+            size += value.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buf;
+        private int position;
+
+        Input(byte[] buf) {
+            this.buf = buf;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at byte " + position);
+        }
+
+        // a varint used as a count or index, so it has to fit an int
+        int count() {
+            long value = varint();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Count out of range at byte " + position);
+            }
+            return (int) value;
+        }
+
+        int fixed32() {
+            return (next() & 0xFF) << 24 | (next() & 0xFF) << 16 | (next() & 0xFF) << 8 | (next() & 0xFF);
+        }
+
+        String string() {
+            long length = varint();
+            if (length == 0) {
+                return null;
+            }
+            byte[] utf8 = bytes((int) Math.min(length - 1, Integer.MAX_VALUE));
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        String[] strings(int count) {
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = string();
+            }
+            return values;
+        }
+
+        byte[] bytes(int length) {
+            if (length > buf.length - position) {
+                throw new IllegalArgumentException("Truncated columnar pin list");
+            }
+            byte[] value = Arrays.copyOfRange(buf, position, position + length);
+            position += length;
+            return value;
+        }
+
+        private byte next() {
+            if (position >= buf.length) {
+                throw new IllegalArgumentException("Truncated columnar pin list");
+            }
+            return buf[position++];
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.wire;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractSmartHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+// Lets any endpoint returning List<PinResponseDTO> answer Accept: application/vnd.pins.columnar with PinColumnarCodec.
+// It only handles that media type. Custom converters are placed ahead of the default ones, so for Accept: */* this one
+// would win over JSON; like GET /pins it is therefore only offered when the request names the columnar type in Accept
+public class PinColumnarHttpMessageConverter extends AbstractSmartHttpMessageConverter<List<PinResponseDTO>> {
+
+    public PinColumnarHttpMessageConverter() {
+        super(MediaType.parseMediaType(PinColumnarCodec.MEDIA_TYPE));
+    }
+
+    @Override
+    public boolean canRead(ResolvableType type, MediaType mediaType) {
+        return isPinList(type) && canRead(mediaType);
+    }
+
+    // a null media type is MVC collecting the types it could produce for the request
+    @Override
+    public boolean canWrite(ResolvableType type, Class<?> valueClass, MediaType mediaType) {
+        return isPinList(type) && (mediaType == null ? columnarRequested() : canWrite(mediaType));
+    }
+
+    // MVC asks for the media types by value class alone (an ArrayList without its element type),
+    // the element type has already been checked by canWrite/canRead with the declared type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public List<PinResponseDTO> read(ResolvableType type, HttpInputMessage inputMessage, Map<String, Object> hints)
+            throws IOException {
+        try {
+            return PinColumnarCodec.decode(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(List<PinResponseDTO> pins, ResolvableType type, HttpOutputMessage outputMessage,
+                                 Map<String, Object> hints) throws IOException {
+        byte[] bytes = PinColumnarCodec.encode(pins);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    private static boolean columnarRequested() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        String accept = attributes.getRequest().getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(PinColumnarCodec.MEDIA_TYPE);
+    }
+
+    private static boolean isPinList(ResolvableType type) {
+        return List.class.isAssignableFrom(type.toClass())
+                && type.asCollection().resolveGeneric(0) == PinResponseDTO.class;
+    }
+}
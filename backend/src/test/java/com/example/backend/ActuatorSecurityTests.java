@@ -0,0 +1,28 @@
+package com.example.backend;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Anonymous clients may see the health check but neither read metrics nor empty the caches
+@SpringBootTest
+@AutoConfigureMockMvc
+class ActuatorSecurityTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void onlyHealthIsPublic() throws Exception {
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().is4xxClientError());
+		mockMvc.perform(get("/actuator/caches")).andExpect(status().is4xxClientError());
+		mockMvc.perform(delete("/actuator/caches")).andExpect(status().is4xxClientError());
+	}
+}
@@ -0,0 +1,139 @@
+package com.example.backend.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.CommentService;
+import com.example.backend.services.CommentWriteBehind;
+import com.example.backend.services.PinService;
+
+// Sustained comment throughput during a burst on a handful of pins: CommentService.addComment against
+// CommentWriteBehind.submit, from the same number of writer threads, at the service level on H2. The write-behind
+// time runs until every comment is in the database, and writers that get a 503 back off and retry.
+// mvn -Pbenchmark test -Dtest=CommentIngestBenchmark [-Dbenchmark.comments=50000 -Dbenchmark.threads=16]
+@Tag("benchmark")
+@SpringBootTest(properties = "comments.write-behind.enabled=true")
+class CommentIngestBenchmark {
+	private static final int COMMENTS = Integer.getInteger("benchmark.comments", 20_000);
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+	private static final int PINS = 5;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private CommentWriteBehind commentWriteBehind;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Test
+	void directInsertVersusWriteBehind() throws Exception {
+		Long userId = newUser().getId();
+		List<Long> pinIds = new ArrayList<>();
+		for (int i = 0; i < PINS; i++) {
+			PinCreateDTO dto = new PinCreateDTO();
+			dto.setTitle("flood pin " + i);
+			dto.setUserId(userId);
+			pinIds.add(pinService.createPin(dto).getId());
+		}
+		// warm up both paths
+		direct(userId, pinIds, 1000);
+		writeBehind(userId, pinIds, 1000);
+
+		long start = System.nanoTime();
+		direct(userId, pinIds, COMMENTS);
+		double directSeconds = (System.nanoTime() - start) / 1e9;
+
+		start = System.nanoTime();
+		long retries = writeBehind(userId, pinIds, COMMENTS);
+		double writeBehindSeconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("direct:       %d comments in %.2fs = %.0f comments/s (%d threads)%n", COMMENTS, directSeconds, COMMENTS / directSeconds, THREADS);
+		System.out.printf("write-behind: %d comments in %.2fs = %.0f comments/s (%d threads, %d retries after 503)%n", COMMENTS, writeBehindSeconds, COMMENTS / writeBehindSeconds, THREADS, retries);
+		System.out.printf("speedup: %.1fx%n", directSeconds / writeBehindSeconds);
+	}
+
+	private void direct(Long userId, List<Long> pinIds, int count) throws Exception {
+		inParallel(count, i -> {
+			commentService.addComment("comment " + i, userId, pinIds.get(i % pinIds.size()));
+			return 0L;
+		});
+	}
+
+	// returns how many submits were refused and retried; done when all comments are written
+	private long writeBehind(Long userId, List<Long> pinIds, int count) throws Exception {
+		long before = commentRepository.count();
+		long retries = inParallel(count, i -> {
+			long refused = 0;
+			while (true) {
+				try {
+					commentWriteBehind.submit("comment " + i, userId, pinIds.get(i % pinIds.size()));
+					return refused;
+				} catch (ResponseStatusException e) {
+					refused++;
+					Thread.sleep(1);
+				}
+			}
+		});
+		while (commentRepository.count() < before + count) {
+			Thread.sleep(5);
+		}
+		return retries;
+	}
+
+	private interface Write {
+		long run(int i) throws Exception;
+	}
+
+	private long inParallel(int count, Write write) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Long>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					long sum = 0;
+					for (int i = thread; i < count; i += THREADS) {
+						sum += write.run(i);
+					}
+					return sum;
+				}));
+			}
+			long sum = 0;
+			for (Future<Long> future : futures) {
+				sum += future.get();
+			}
+			return sum;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("ingest-benchmark-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.backend.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.UserCreateRequestDTO;
+import com.example.backend.services.PinService;
+import com.example.backend.services.UserService;
+
+// Latency of GET /pins/user/{id} on its own and while LOGIN_THREADS clients hammer POST /users/login.
+// BCrypt runs on the PasswordVerifier pool, so reads should keep roughly their idle latency and the
+// excess logins come back as 503.
+// The queue is kept below the number of clients so the 503 path is exercised too.
+// mvn -Pbenchmark test -Dtest=LoginFloodBenchmark [-Dbenchmark.login-threads=128]
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.login.queue-capacity=16")
+class LoginFloodBenchmark {
+	private static final int LOGIN_THREADS = Integer.getInteger("benchmark.login-threads", 64);
+	private static final int READ_THREADS = 4;
+	private static final int READS = 1000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PinService pinService;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newFixedThreadPool(LOGIN_THREADS + READ_THREADS))
+			.build();
+
+	@Test
+	void pinReadLatencyUnderLoginFlood() throws Exception {
+		UserCreateRequestDTO account = new UserCreateRequestDTO();
+		account.setUsername("flood-" + System.nanoTime());
+		account.setEmail(account.getUsername() + "@example.com");
+		account.setPassword("correct horse battery staple");
+		Long userId = userService.createUser(account).getId();
+		for (int i = 0; i < 50; i++) {
+			PinCreateDTO pin = new PinCreateDTO();
+			pin.setTitle("pin " + i);
+			pin.setLatitude(i % 90);
+			pin.setLongitude(i % 180);
+			pin.setUserId(userId);
+			pinService.createPin(pin);
+		}
+		URI readUri = URI.create("http://localhost:" + port + "/pins/user/" + userId);
+
+		// warm up
+		measureReads(readUri, 500);
+		long[] idle = measureReads(readUri, READS);
+
+		AtomicBoolean flooding = new AtomicBoolean(true);
+		AtomicLong accepted = new AtomicLong();
+		AtomicLong rejected = new AtomicLong();
+		String body = "{\"usernameOrEmail\":\"" + account.getUsername() + "\",\"password\":\"" + account.getPassword() + "\"}";
+		HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		ExecutorService flood = Executors.newFixedThreadPool(LOGIN_THREADS);
+		for (int i = 0; i < LOGIN_THREADS; i++) {
+			flood.execute(() -> {
+				while (flooding.get()) {
+					try {
+						int status = client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+						(status == 200 ? accepted : rejected).incrementAndGet();
+					} catch (Exception e) {
+						rejected.incrementAndGet();
+					}
+				}
+			});
+		}
+		Thread.sleep(1000);
+		long[] flooded = measureReads(readUri, READS);
+		flooding.set(false);
+		flood.shutdown();
+		flood.awaitTermination(30, TimeUnit.SECONDS);
+
+		print("idle", idle);
+		print("login flood", flooded);
+		System.out.printf("logins: %d accepted, %d rejected with 503 (%d clients)%n", accepted.get(), rejected.get(), LOGIN_THREADS);
+	}
+
+	private long[] measureReads(URI uri, int count) throws InterruptedException {
+		long[] latencies = new long[count];
+		AtomicLong next = new AtomicLong();
+		ExecutorService readers = Executors.newFixedThreadPool(READ_THREADS);
+		HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+		for (int t = 0; t < READ_THREADS; t++) {
+			readers.execute(() -> {
+				int i;
+				while ((i = (int) next.getAndIncrement()) < count) {
+					long start = System.nanoTime();
+					try {
+						client.send(request, HttpResponse.BodyHandlers.discarding());
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					latencies[i] = System.nanoTime() - start;
+				}
+			});
+		}
+		readers.shutdown();
+		readers.awaitTermination(5, TimeUnit.MINUTES);
+		return latencies;
+	}
+
+	private static void print(String label, long[] latencies) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		System.out.printf("%-12s reads p50 %.2fms  p99 %.2fms  max %.2fms%n", label,
+				sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.backend.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.PinService;
+
+// Throughput of POST /pins/create one by one against POST /pins/batch, at the service level on H2.
+// mvn -Pbenchmark test -Dtest=PinBatchCreateBenchmark [-Dbenchmark.pins=20000]
+@Tag("benchmark")
+@SpringBootTest
+class PinBatchCreateBenchmark {
+	private static final int PINS = Integer.getInteger("benchmark.pins", 10_000);
+	private static final int BATCH_SIZE = 1000;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void singleCreateVersusBatch() {
+		Long userId = newUser().getId();
+		// warm up both paths so the JIT and connection pool are in the same state
+		createOneByOne(userId, 500);
+		createInBatches(userId, 500);
+
+		long start = System.nanoTime();
+		createOneByOne(userId, PINS);
+		double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+		start = System.nanoTime();
+		createInBatches(userId, PINS);
+		double batchSeconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("single create: %d pins in %.2fs = %.0f pins/s%n", PINS, singleSeconds, PINS / singleSeconds);
+		System.out.printf("batch create:  %d pins in %.2fs = %.0f pins/s (batches of %d)%n", PINS, batchSeconds, PINS / batchSeconds, BATCH_SIZE);
+		System.out.printf("speedup: %.1fx%n", singleSeconds / batchSeconds);
+	}
+
+	private void createOneByOne(Long userId, int count) {
+		for (int i = 0; i < count; i++) {
+			pinService.createPin(pin(userId, i));
+		}
+	}
+
+	private void createInBatches(Long userId, int count) {
+		for (int from = 0; from < count; from += BATCH_SIZE) {
+			List<PinCreateDTO> batch = new ArrayList<>();
+			for (int i = from; i < Math.min(count, from + BATCH_SIZE); i++) {
+				batch.add(pin(userId, i));
+			}
+			pinService.createPins(batch);
+		}
+	}
+
+	private static PinCreateDTO pin(Long userId, int i) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle("observation " + i);
+		dto.setDescription("water level report");
+		dto.setLatitude(-60 + (i * 7919 % 12000) / 100.0);
+		dto.setLongitude(-170 + (i * 104729 % 34000) / 100.0);
+		dto.setUserId(userId);
+		return dto;
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("benchmark-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.backend.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.PinService;
+
+// Deleting a pin with many comments through the entity cascade (load the pin, orphanRemoval loads and deletes every
+// comment) against PinService.deletePin, which runs one delete statement per table, on H2.
+// mvn -Pbenchmark test -Dtest=PinDeleteBenchmark [-Dbenchmark.comments=200000]
+@Tag("benchmark")
+@SpringBootTest
+class PinDeleteBenchmark {
+	private static final int COMMENTS = Integer.getInteger("benchmark.comments", 100_000);
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private PinRepository pinRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void entityCascadeVersusSetBasedDelete() {
+		User user = newUser();
+		// warm up both paths
+		deleteWithEntityCascade(pinWithComments(user, 1000));
+		pinService.deletePin(pinWithComments(user, 1000));
+
+		Long cascaded = pinWithComments(user, COMMENTS);
+		long start = System.nanoTime();
+		deleteWithEntityCascade(cascaded);
+		double cascadeMillis = (System.nanoTime() - start) / 1e6;
+
+		Long setBased = pinWithComments(user, COMMENTS);
+		start = System.nanoTime();
+		pinService.deletePin(setBased);
+		double setBasedMillis = (System.nanoTime() - start) / 1e6;
+
+		System.out.printf("entity cascade: pin with %d comments deleted in %.0fms%n", COMMENTS, cascadeMillis);
+		System.out.printf("set-based:      pin with %d comments deleted in %.0fms%n", COMMENTS, setBasedMillis);
+		System.out.printf("speedup: %.1fx%n", cascadeMillis / setBasedMillis);
+	}
+
+	// what PinService.deletePin did before: pinRepository.delete on the loaded entity
+	private void deleteWithEntityCascade(Long pinId) {
+		transactionTemplate.executeWithoutResult(status -> pinRepository.delete(pinRepository.findById(pinId).orElseThrow()));
+	}
+
+	// comments are written with plain JDBC batches, seeding them through JPA would dominate the run
+	private Long pinWithComments(User user, int comments) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle("busy pin");
+		dto.setUserId(user.getId());
+		Long pinId = pinService.createPin(dto).getId();
+		Timestamp now = Timestamp.from(Instant.now());
+		long firstId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from comments", Long.class) + 1_000_000;
+		for (int from = 0; from < comments; from += 1000) {
+			int size = Math.min(1000, comments - from);
+			long batchStart = firstId + from;
+			jdbcTemplate.batchUpdate("insert into comments (id, text, user_id, pin_id, created_at) values (?, ?, ?, ?, ?)",
+					IntStream.range(0, size)
+							.mapToObj(i -> new Object[] {batchStart + i, "comment " + i, user.getId(), pinId, now})
+							.toList());
+		}
+		transactionTemplate.executeWithoutResult(status -> pinRepository.adjustCommentCount(pinId, comments));
+		return pinId;
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("delete-benchmark-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
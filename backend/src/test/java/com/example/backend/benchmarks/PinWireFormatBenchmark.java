@@ -0,0 +1,84 @@
+package com.example.backend.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.wire.PinColumnarCodec;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+// Payload size and encode time of the GET /pins list as JSON and in the columnar binary form, raw and gzipped.
+// Coordinates are full-precision doubles like real client input, usernames repeat across 1000 users.
+// mvn -Pbenchmark test -Dtest=PinWireFormatBenchmark [-Dbenchmark.pins=100000]
+@Tag("benchmark")
+class PinWireFormatBenchmark {
+	private static final int PINS = Integer.getInteger("benchmark.pins", 100_000);
+	private static final int ROUNDS = 15;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+	@Test
+	void jsonVersusColumnar() throws IOException {
+		List<PinResponseDTO> pins = pins(PINS);
+		byte[] json = objectMapper.writeValueAsBytes(pins);
+		byte[] columnar = PinColumnarCodec.encode(pins);
+
+		double jsonMillis = medianMillis(() -> objectMapper.writeValueAsBytes(pins));
+		double columnarMillis = medianMillis(() -> PinColumnarCodec.encode(pins));
+
+		System.out.printf("%d pins%n", PINS);
+		System.out.printf("json:     %,10d bytes, gzip %,10d bytes, encode %6.1fms%n", json.length, gzip(json).length, jsonMillis);
+		System.out.printf("columnar: %,10d bytes, gzip %,10d bytes, encode %6.1fms%n", columnar.length, gzip(columnar).length, columnarMillis);
+		System.out.printf("columnar is %.1f%% of json, encodes %.1fx faster%n",
+				100.0 * columnar.length / json.length, jsonMillis / columnarMillis);
+	}
+
+	private static double medianMillis(Supplier<byte[]> encoder) {
+		// warm up before timing
+		for (int i = 0; i < 5; i++) {
+			encoder.get();
+		}
+		double[] millis = new double[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			encoder.get();
+			millis[i] = (System.nanoTime() - start) / 1e6;
+		}
+		Arrays.sort(millis);
+		return millis[ROUNDS / 2];
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+	private static List<PinResponseDTO> pins(int count) {
+		Random random = new Random(42);
+		Instant start = Instant.parse("2025-01-01T00:00:00Z");
+		List<PinResponseDTO> pins = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			long userId = random.nextInt(1000);
+			pins.add(new PinResponseDTO((long) i + 1, "observation " + i, "water level report, reading " + random.nextInt(500),
+					random.nextDouble(-60, 60), random.nextDouble(-180, 180),
+					i % 3 == 0 ? "https://example.com/images/" + i + ".jpg" : null,
+					userId, "user-" + userId, start.plusMillis(i * 61_000L + random.nextInt(1000)), random.nextInt(20)));
+		}
+		return pins;
+	}
+}
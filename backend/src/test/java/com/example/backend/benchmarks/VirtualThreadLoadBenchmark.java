@@ -0,0 +1,132 @@
+package com.example.backend.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.CommentService;
+import com.example.backend.services.PinService;
+
+// Throughput and latency of GET /pins?limit= and GET /comments/pins/{id}?limit= with CLIENTS concurrent clients,
+// once with Tomcat's platform-thread pool and once with spring.threads.virtual.enabled. Each mode gets its own
+// application and H2 database. Both pages hit the database on every request.
+// mvn -Pbenchmark test -Dtest=VirtualThreadLoadBenchmark [-Dbenchmark.clients=800 -Dbenchmark.requests=40000]
+@Tag("benchmark")
+class VirtualThreadLoadBenchmark {
+	private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+	private static final int PINS = 200;
+
+	@Test
+	void platformVersusVirtualThreads() throws Exception {
+		String platform = run(false);
+		String virtual = run(true);
+		System.out.println(platform);
+		System.out.println(virtual);
+	}
+
+	private String run(boolean virtualThreads) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads,
+						"--spring.datasource.url=jdbc:h2:mem:threads-" + virtualThreads + ";DB_CLOSE_DELAY=-1")) {
+			int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+			List<Long> pinIds = seed(context);
+			List<URI> uris = new ArrayList<>();
+			for (Long pinId : pinIds) {
+				uris.add(URI.create("http://localhost:" + port + "/pins?limit=50&after=" + (pinId - 1)));
+				uris.add(URI.create("http://localhost:" + port + "/comments/pins/" + pinId + "?limit=20"));
+			}
+
+			load(uris, REQUESTS / 4);
+			long start = System.nanoTime();
+			long[] latencies = load(uris, REQUESTS);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			Arrays.sort(latencies);
+			return String.format("%-8s %d requests, %d clients: %.0f req/s  p50 %.2fms  p99 %.2fms  max %.2fms",
+					virtualThreads ? "virtual" : "platform", REQUESTS, CLIENTS, REQUESTS / seconds,
+					latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6,
+					latencies[latencies.length - 1] / 1e6);
+		}
+	}
+
+	private static long[] load(List<URI> uris, int count) throws InterruptedException {
+		long[] latencies = new long[count];
+		AtomicInteger next = new AtomicInteger();
+		AtomicLong failures = new AtomicLong();
+		// virtual client threads so the client side is not what limits concurrency
+		try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+			ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+			for (int c = 0; c < CLIENTS; c++) {
+				clients.execute(() -> {
+					int i;
+					while ((i = next.getAndIncrement()) < count) {
+						HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+						long start = System.nanoTime();
+						try {
+							if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+								failures.incrementAndGet();
+							}
+						} catch (Exception e) {
+							failures.incrementAndGet();
+						}
+						latencies[i] = System.nanoTime() - start;
+					}
+				});
+			}
+			clients.shutdown();
+			clients.awaitTermination(10, TimeUnit.MINUTES);
+		}
+		if (failures.get() > 0) {
+			System.out.println(failures.get() + " failed requests");
+		}
+		return latencies;
+	}
+
+	private static List<Long> seed(ConfigurableApplicationContext context) {
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		PinService pinService = context.getBean(PinService.class);
+		CommentService commentService = context.getBean(CommentService.class);
+		User user = new User();
+		user.setUsername("load");
+		user.setEmail("load@example.com");
+		user.setPassword("secret");
+		Long userId = userRepository.save(user).getId();
+
+		List<PinCreateDTO> pins = new ArrayList<>();
+		for (int i = 0; i < PINS; i++) {
+			PinCreateDTO dto = new PinCreateDTO();
+			dto.setTitle("pin " + i);
+			dto.setLatitude(-60 + i % 120);
+			dto.setLongitude(-170 + i % 340);
+			dto.setUserId(userId);
+			pins.add(dto);
+		}
+		List<Long> pinIds = pinService.createPins(pins).stream().map(result -> result.getPin().getId()).toList();
+		for (Long pinId : pinIds) {
+			for (int i = 0; i < 20; i++) {
+				commentService.addComment("comment " + i, userId, pinId);
+			}
+		}
+		return pinIds;
+	}
+}
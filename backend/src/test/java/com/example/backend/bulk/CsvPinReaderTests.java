@@ -0,0 +1,69 @@
+package com.example.backend.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvPinReaderTests {
+
+	@Test
+	void readsQuotedFieldsAcrossLines() throws IOException {
+		String csv = "Latitude,longitude,title,description,userId\r\n"
+				+ "14.5,121,\"Manila, PH\",\"says \"\"hi\"\"\nover two lines\",7\r\n"
+				+ "\n"
+				+ "-33.9,18.4,Cape Town,,\n";
+
+		List<PinReader.Row> rows = readAll(csv, 3L);
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0).number()).isEqualTo(1);
+		assertThat(rows.get(0).pin().getTitle()).isEqualTo("Manila, PH");
+		assertThat(rows.get(0).pin().getDescription()).isEqualTo("says \"hi\"\nover two lines");
+		assertThat(rows.get(0).pin().getUserId()).isEqualTo(7L);
+		assertThat(rows.get(1).pin().getLatitude()).isEqualTo(-33.9);
+		assertThat(rows.get(1).pin().getDescription()).isNull();
+		assertThat(rows.get(1).pin().getUserId()).isEqualTo(3L);
+	}
+
+	@Test
+	void badRecordsAreRejectedAndReadingGoesOn() throws IOException {
+		String csv = "latitude,longitude,userId\n"
+				+ "north,10,1\n"
+				+ "1,2\n"
+				+ "1,2,x\n"
+				+ "1,2,1\n";
+
+		List<PinReader.Row> rows = readAll(csv, null);
+
+		assertThat(rows).extracting(PinReader.Row::number).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(rows.subList(0, 3)).allSatisfy(row -> assertThat(row.error()).isNotNull());
+		assertThat(rows.get(3).pin()).isNotNull();
+	}
+
+	@Test
+	void brokenInputStopsTheReader() throws IOException {
+		assertThatThrownBy(() -> readAll("title,description\nx,y\n", 1L))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> readAll("latitude,longitude,color\n1,2,red\n", 1L))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> readAll("latitude,longitude,title\n1,2,\"never closed\n3,4,x\n", 1L))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static List<PinReader.Row> readAll(String csv, Long defaultUserId) throws IOException {
+		List<PinReader.Row> rows = new ArrayList<>();
+		try (PinReader reader = new CsvPinReader(new StringReader(csv), defaultUserId)) {
+			PinReader.Row row;
+			while ((row = reader.next()) != null) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}
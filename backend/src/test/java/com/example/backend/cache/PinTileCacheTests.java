@@ -0,0 +1,101 @@
+package com.example.backend.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+import com.example.backend.services.PinChangeListener;
+import com.example.backend.spatial.PinClusterIndex;
+import com.example.backend.spatial.PinSpatialIndex;
+
+class PinTileCacheTests {
+
+	private final PinSpatialIndex spatialIndex = new PinSpatialIndex(1.0);
+	private final PinClusterIndex clusterIndex = new PinClusterIndex(16);
+	private final PinTileCache tiles = new PinTileCache(spatialIndex, clusterIndex, 22, 2, 1 << 20);
+	// in the order PinService gets them injected
+	private final List<PinChangeListener> listeners = new ArrayList<>(List.of(tiles, clusterIndex, spatialIndex));
+
+	PinTileCacheTests() {
+		AnnotationAwareOrderComparator.sort(listeners);
+	}
+
+	@Test
+	void pinWriteDropsOnlyTheTilesContainingThePin() {
+		save(pin(1L, "Manila", 14.60, 120.98));
+		save(pin(2L, "Paris", 48.85, 2.35));
+
+		// z4 tiles of Manila and Paris, plus the whole world at z0
+		byte[] manila = tiles.tile(4, 13, 7);
+		byte[] paris = tiles.tile(4, 8, 5);
+		tiles.tile(0, 0, 0);
+		assertThat(text(manila)).contains("pins", "Manila").doesNotContain("Paris");
+		assertThat(tiles.size()).isEqualTo(3);
+
+		save(pin(1L, "Intramuros", 14.60, 120.98));
+
+		assertThat(tiles.size()).isEqualTo(1);
+		assertThat(tiles.tile(4, 8, 5)).isSameAs(paris);
+		assertThat(text(tiles.tile(4, 13, 7))).contains("Intramuros");
+	}
+
+	@Test
+	void tileReflectsAMoveRightAfterPinSaved() {
+		save(pin(1L, "Manila", 14.60, 120.98));
+		assertThat(text(tiles.tile(4, 13, 7))).contains("Manila");
+		assertThat(text(tiles.tile(4, 8, 5))).doesNotContain("Manila");
+
+		save(pin(1L, "Manila", 48.85, 2.35));
+
+		assertThat(listeners).last().isSameAs(tiles);
+		assertThat(text(tiles.tile(4, 13, 7))).doesNotContain("Manila");
+		assertThat(text(tiles.tile(4, 8, 5))).contains("Manila");
+	}
+
+	@Test
+	void denseTileCarriesClustersInsteadOfPins() {
+		save(pin(1L, "a", 14.60, 120.98));
+		save(pin(2L, "b", 14.55, 121.03));
+		save(pin(3L, "c", 10.31, 123.89));
+
+		assertThat(text(tiles.tile(0, 0, 0))).contains("clusters", "count").doesNotContain("pins");
+		assertThat(text(tiles.tile(12, 3424, 1880))).contains("pins");
+	}
+
+	@Test
+	void rejectsTilesOutsideTheGrid() {
+		assertThatThrownBy(() -> tiles.tile(2, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> tiles.tile(23, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void save(PinResponseDTO pin) {
+		listeners.forEach(listener -> listener.pinSaved(pin));
+	}
+
+	// layer names, keys and string values are stored as plain UTF-8 in the protobuf
+	private static String text(byte[] tile) {
+		return new String(tile, StandardCharsets.ISO_8859_1);
+	}
+
+	private static PinResponseDTO pin(Long id, String title, double latitude, double longitude) {
+		User user = new User();
+		user.setId(7L);
+		user.setUsername("tester");
+		Pin pin = new Pin();
+		pin.setId(id);
+		pin.setTitle(title);
+		pin.setLatitude(latitude);
+		pin.setLongitude(longitude);
+		pin.setUser(user);
+		return new PinResponseDTO(pin);
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.backend.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Malformed or out-of-range query input on the pin and comment read endpoints is a 400 with the reason, not a 500
+@SpringBootTest
+@AutoConfigureMockMvc
+class BadRequestTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void invalidInputIsABadRequest() throws Exception {
+		for (String uri : List.of(
+				"/pins?minLat=10&minLon=0&maxLat=5&maxLon=10",
+				"/pins?limit=0",
+				"/pins?limit=100000",
+				"/pins/clusters?zoom=3&bbox=1,2,3",
+				"/pins/clusters?zoom=3&bbox=a,b,c,d",
+				"/pins/nearby?lat=10&lon=20&k=0",
+				"/pins/search?q=flood&limit=0",
+				"/pins/search?q=flood&bbox=0,0,x,1",
+				"/pins/tiles/2/4/0.mvt",
+				"/comments/pins/1?limit=10&before=abc",
+				"/comments/pins/1?limit=10&before=1_x",
+				"/comments/pins/1?limit=0")) {
+			mockMvc.perform(get(uri))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.detail").isNotEmpty());
+		}
+	}
+}
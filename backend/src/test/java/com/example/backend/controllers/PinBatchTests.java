@@ -0,0 +1,63 @@
+package com.example.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+// POST /pins/batch answers every item in request order; bad items, null ones included, are rejected on their own
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class PinBatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void invalidItemsAreReportedWithoutFailingTheBatch() throws Exception {
+		User user = newUser();
+		String body = "[null,"
+				+ "{\"title\":\"batch-ok\",\"latitude\":10,\"longitude\":20,\"userId\":" + user.getId() + "},"
+				+ "{\"title\":\"batch-bad\",\"latitude\":95,\"longitude\":20,\"userId\":" + user.getId() + "},"
+				+ "{\"title\":\"batch-nobody\",\"latitude\":10,\"longitude\":20,\"userId\":-1}]";
+
+		String response = mockMvc.perform(post("/pins/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode results = objectMapper.readTree(response);
+
+		assertThat(results.size()).isEqualTo(4);
+		assertThat(results.get(0).get("created").asBoolean()).isFalse();
+		assertThat(results.get(0).get("error").asString()).isEqualTo("Pin is missing");
+		assertThat(results.get(1).get("created").asBoolean()).isTrue();
+		assertThat(results.get(1).get("pin").get("title").asString()).isEqualTo("batch-ok");
+		assertThat(results.get(2).get("error").asString()).contains("Latitude");
+		assertThat(results.get(3).get("error").asString()).contains("User not found");
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("batch-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.PinService;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+// An uploaded image is served with immutable caching and byte ranges, and gets a thumbnail that fits the configured size
+@SpringBootTest(properties = "pins.images.thumbnail-size=64")
+@AutoConfigureMockMvc(addFilters = false)
+class PinImageTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void uploadedImageIsServedWithRangesAndAThumbnail() throws Exception {
+		PinResponseDTO pin = addPin();
+		byte[] png = png(640, 480);
+
+		String body = mockMvc.perform(multipart("/pins/" + pin.getId() + "/image")
+						.file(new MockMultipartFile("file", "photo.png", "image/png", png)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode updated = objectMapper.readTree(body);
+		String imageUrl = updated.get("imageUrl").asString();
+		String thumbnailUrl = updated.get("thumbnailUrl").asString();
+		assertThat(imageUrl).matches("/images/[0-9a-f]{64}\\.png");
+		assertThat(thumbnailUrl).isEqualTo(imageUrl.replace(".png", "-thumb.jpg"));
+		assertThat(pinService.getPinById(pin.getId()).getImageUrl()).isEqualTo(imageUrl);
+
+		String etag = mockMvc.perform(get(imageUrl))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get(imageUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		byte[] part = mockMvc.perform(get(imageUrl).header(HttpHeaders.RANGE, "bytes=10-19"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + png.length))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertThat(part).isEqualTo(Arrays.copyOfRange(png, 10, 20));
+		mockMvc.perform(get(imageUrl).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable());
+
+		BufferedImage thumbnail = awaitThumbnail(thumbnailUrl);
+		assertThat(thumbnail.getWidth()).isEqualTo(64);
+		assertThat(thumbnail.getHeight()).isEqualTo(48);
+	}
+
+	@Test
+	void otherFilesAreRejected() throws Exception {
+		PinResponseDTO pin = addPin();
+		mockMvc.perform(multipart("/pins/" + pin.getId() + "/image")
+						.file(new MockMultipartFile("file", "notes.txt", "image/png", "not an image".getBytes())))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Only JPEG, PNG and GIF images can be uploaded"));
+		assertThat(pinService.getPinById(pin.getId()).getImageUrl()).isNull();
+		mockMvc.perform(get("/images/..%2Fapplication.properties"))
+				.andExpect(status().isNotFound());
+	}
+
+	// until the background thumbnail exists the URL answers with the original, marked no-cache
+	private BufferedImage awaitThumbnail(String url) throws Exception {
+		for (int attempt = 0; attempt < 100; attempt++) {
+			var response = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse();
+			if ("image/jpeg".equals(response.getContentType())) {
+				return ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray()));
+			}
+			assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+			Thread.sleep(50);
+		}
+		throw new AssertionError("No thumbnail at " + url);
+	}
+
+	private static byte[] png(int width, int height) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private PinResponseDTO addPin() {
+		User user = new User();
+		user.setUsername("image-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle("with image");
+		dto.setUserId(user.getId());
+		return pinService.createPin(dto);
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.bulk.CsvPinReader;
+import com.example.backend.bulk.GeoJsonPinReader;
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.PinService;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+// POST /pins/import reports progress per chunk, and what GET /pins/export writes can be imported again.
+// A small chunk size makes the three-record file span two chunks
+@SpringBootTest(properties = "pins.import.chunk-size=2")
+@AutoConfigureMockMvc(addFilters = false)
+class PinImportExportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void csvImportReportsEachChunk() throws Exception {
+		User user = newUser();
+		String csv = "title,latitude,longitude\n"
+				+ "import-a,10,20\n"
+				+ "import-b,95,20\n"
+				+ "import-c,-10,-20\n";
+
+		List<JsonNode> lines = importPins(CsvPinReader.MEDIA_TYPE, csv, user);
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0).get("processed").asLong()).isEqualTo(2);
+		assertThat(lines.get(0).get("errors").get(0).get("row").asLong()).isEqualTo(2);
+		JsonNode last = lines.get(1);
+		assertThat(last.get("done").asBoolean()).isTrue();
+		assertThat(last.get("imported").asLong()).isEqualTo(2);
+		assertThat(last.get("rejected").asLong()).isEqualTo(1);
+		assertThat(pinService.getPinByUserId(user.getId())).hasSize(2);
+	}
+
+	@Test
+	void exportedGeoJsonImportsAgain() throws Exception {
+		User user = newUser();
+		importPins(CsvPinReader.MEDIA_TYPE, "title,latitude,longitude\nround-trip,1.5,2.5\n", user);
+
+		String exported = mockMvc.perform(get("/pins/export"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		// import this user's features again under another user, leaving the other tests' pins alone
+		User other = newUser();
+		ObjectNode collection = (ObjectNode) objectMapper.readTree(exported);
+		assertThat(collection.get("type").asString()).isEqualTo("FeatureCollection");
+		ArrayNode features = objectMapper.createArrayNode();
+		for (JsonNode feature : collection.get("features")) {
+			ObjectNode properties = (ObjectNode) feature.get("properties");
+			if (properties.get("userId").asLong() == user.getId()) {
+				properties.put("userId", other.getId());
+				features.add(feature);
+			}
+		}
+		collection.set("features", features);
+		List<JsonNode> lines = importPins(GeoJsonPinReader.MEDIA_TYPE, objectMapper.writeValueAsString(collection), null);
+
+		assertThat(lines.get(lines.size() - 1).get("failure").isNull()).isTrue();
+		assertThat(pinService.getPinByUserId(other.getId()))
+				.singleElement()
+				.satisfies(pin -> {
+					assertThat(pin.getTitle()).isEqualTo("round-trip");
+					assertThat(pin.getLatitude()).isEqualTo(1.5);
+					assertThat(pin.getLongitude()).isEqualTo(2.5);
+				});
+	}
+
+	private List<JsonNode> importPins(String contentType, String body, User defaultUser) throws Exception {
+		var request = post("/pins/import").contentType(contentType).content(body);
+		if (defaultUser != null) {
+			request.param("userId", defaultUser.getId().toString());
+		}
+		String response = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return response.lines().map(objectMapper::readTree).toList();
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("import-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,121 @@
+package com.example.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.PinService;
+import com.example.backend.wire.PinColumnarCodec;
+
+// GET /pins and GET /pins/user/{id} answer in the columnar format only when the client asks for it, and
+// GET /pins gzips only for clients that accept it
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class PinWireFormatTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinService pinService;
+
+	@Test
+	void columnarOnlyWhenRequested() throws Exception {
+		User user = newUser();
+		PinResponseDTO first = addPin(user, "first");
+		PinResponseDTO second = addPin(user, "second");
+
+		for (String path : List.of("/pins", "/pins/user/" + user.getId())) {
+			mockMvc.perform(get(path).accept(MediaType.ALL))
+					.andExpect(status().isOk())
+					.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+			byte[] body = mockMvc.perform(get(path).accept(PinColumnarCodec.MEDIA_TYPE))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(PinColumnarCodec.MEDIA_TYPE))
+					.andReturn().getResponse().getContentAsByteArray();
+
+			assertThat(PinColumnarCodec.decode(body))
+					.filteredOn(pin -> pin.getUserId().equals(user.getId()))
+					.extracting(PinResponseDTO::getId, PinResponseDTO::getTitle, PinResponseDTO::getUsername)
+					.contains(
+							tuple(first.getId(), "first", user.getUsername()),
+							tuple(second.getId(), "second", user.getUsername()));
+		}
+	}
+
+	@Test
+	void gzipOnlyWhenAcceptedWithNonZeroQuality() throws Exception {
+		addPin(newUser(), "gzipped");
+
+		assertThat(pins("gzip, deflate").getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(pins("br;q=1.0, *;q=0.5").getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		for (String refused : List.of("gzip;q=0", "deflate, gzip;q=0.0", "*, gzip;q=0", "identity")) {
+			MvcResult result = pins(refused);
+			assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).as(refused).isNull();
+			assertThat(result.getResponse().getContentAsString()).as(refused).startsWith("[");
+		}
+	}
+
+	@Test
+	void bothResponsesVaryOnEncodingAndAccept() throws Exception {
+		addPin(newUser(), "varied");
+		String etag = pins("gzip").getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult notModified = mockMvc.perform(get("/pins").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andReturn();
+		assertThat(vary(notModified)).isEqualTo("Accept-Encoding, Accept");
+		assertThat(vary(pins(null))).isEqualTo("Accept-Encoding, Accept");
+		assertThat(pins(null).getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+	}
+
+	private static String vary(MvcResult result) {
+		return String.join(", ", result.getResponse().getHeaders(HttpHeaders.VARY));
+	}
+
+	private MvcResult pins(String acceptEncoding) throws Exception {
+		var request = get("/pins");
+		if (acceptEncoding != null) {
+			request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+	}
+
+	private PinResponseDTO addPin(User user, String title) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle(title);
+		dto.setLatitude(14.5995);
+		dto.setLongitude(120.9842);
+		dto.setUserId(user.getId());
+		return pinService.createPin(dto);
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("wire-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
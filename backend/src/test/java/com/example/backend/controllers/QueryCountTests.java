@@ -0,0 +1,151 @@
+package com.example.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.services.CommentService;
+import com.example.backend.services.PinService;
+import com.example.backend.telemetry.RequestTelemetryFilter;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// The pin, comment and user listings must cost the same number of SQL statements no matter how many rows they return.
+// Security filters are off because /users is not public and only statement counts matter here
+@SpringBootTest(properties = "telemetry.sql.debug-header=true")
+@AutoConfigureMockMvc(addFilters = false)
+class QueryCountTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinRepository pinRepository;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private RequestTelemetryFilter requestTelemetryFilter;
+
+	private Statistics statistics;
+
+	private int userCount;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@Test
+	void pinListingStatementCountDoesNotGrowWithRows() throws Exception {
+		addPins(2);
+		long fewRows = statementsFor("/pins");
+
+		addPins(25);
+		long manyRows = statementsFor("/pins");
+
+		assertThat(manyRows).isEqualTo(fewRows);
+	}
+
+	@Test
+	void commentListingStatementCountDoesNotGrowWithRows() throws Exception {
+		Pin pin = addPins(1);
+		addComments(pin, 2);
+		long fewRows = statementsFor("/comments/pins/" + pin.getId());
+
+		addComments(pin, 25);
+		long manyRows = statementsFor("/comments/pins/" + pin.getId());
+
+		assertThat(manyRows).isEqualTo(fewRows);
+	}
+
+	@Test
+	void userListingStatementCountDoesNotGrowWithPins() throws Exception {
+		addPins(2);
+		long fewPins = statementsFor("/users?size=200");
+
+		addPins(25);
+		long manyPins = statementsFor("/users?size=200");
+
+		assertThat(manyPins).isEqualTo(fewPins);
+	}
+
+	@Test
+	void statementCountHeaderMatchesHibernateStatistics() throws Exception {
+		Pin pin = addPins(3);
+		statistics.clear();
+		// addFilters = false above also drops the telemetry filter, so this request goes through it explicitly
+		MockMvc withTelemetry = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(requestTelemetryFilter).build();
+		String header = withTelemetry.perform(get("/pins/user/" + pin.getUser().getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(RequestTelemetryFilter.STATEMENTS_HEADER))
+				.andReturn().getResponse().getHeader(RequestTelemetryFilter.STATEMENTS_HEADER);
+
+		assertThat(Long.parseLong(header)).isEqualTo(statistics.getPrepareStatementCount()).isPositive();
+	}
+
+	private long statementsFor(String url) throws Exception {
+		statistics.clear();
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		return statistics.getPrepareStatementCount();
+	}
+
+	// every pin and comment gets its own owner so per-row user loading would show up as extra statements.
+	// Writes go through the services so cached reads are invalidated like in production
+	private Pin addPins(int count) {
+		Long lastId = null;
+		for (int i = 0; i < count; i++) {
+			PinCreateDTO dto = new PinCreateDTO();
+			dto.setTitle("pin " + i);
+			dto.setUserId(newUser().getId());
+			lastId = pinService.createPin(dto).getId();
+		}
+		return pinRepository.findById(lastId).orElseThrow();
+	}
+
+	private void addComments(Pin pin, int count) {
+		for (int i = 0; i < count; i++) {
+			commentService.addComment("comment " + i, newUser().getId(), pin.getId());
+		}
+	}
+
+	private User newUser() {
+		userCount++;
+		User user = new User();
+		user.setUsername("query-count-" + userCount + "-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.backend.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// Writes a synthetic users/pins/comments dataset straight through JDBC batches, bypassing JPA, so millions of rows
+// take minutes rather than hours. Everything is derived from the row index, so the same sizes always give the same data.
+// Comments are skewed towards low pin ids (a few pins are popular, most have few or none), and Pin.commentCount is
+// written to match
+final class DatasetSeeder {
+	static final String PASSWORD = "load-test-password";
+	private static final int CHUNK = 10_000;
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final DataSource dataSource;
+	private final int users;
+	private final int pins;
+	private final long comments;
+
+	DatasetSeeder(DataSource dataSource, int users, int pins, long comments) {
+		this.dataSource = dataSource;
+		this.users = users;
+		this.pins = pins;
+		this.comments = comments;
+	}
+
+	void seed() throws SQLException {
+		int[] commentCounts = new int[pins];
+		for (long i = 0; i < comments; i++) {
+			commentCounts[pinOfComment(i, pins)]++;
+		}
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			seedUsers(connection);
+			seedPins(connection, commentCounts);
+			seedComments(connection);
+		}
+	}
+
+	private void seedUsers(Connection connection) throws SQLException {
+		// one hash for everybody, BCrypt per row would dominate seeding
+		String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"insert into users (username, email, password, created_at) values (?, ?, ?, ?)")) {
+			for (int i = 1; i <= users; i++) {
+				insert.setString(1, username(i));
+				insert.setString(2, username(i) + "@example.com");
+				insert.setString(3, hash);
+				insert.setTimestamp(4, Timestamp.from(START));
+				insert.addBatch();
+				flushEvery(connection, insert, i);
+			}
+			flush(connection, insert);
+		}
+	}
+
+	private void seedPins(Connection connection, int[] commentCounts) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement("insert into pins (pin_id, title, description, latitude, "
+				+ "longitude, image_url, user_id, comment_count, created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			for (int i = 0; i < pins; i++) {
+				insert.setLong(1, i + 1);
+				insert.setString(2, "observation " + i);
+				insert.setString(3, "water level report near crossing " + (i % 977));
+				insert.setDouble(4, latitude(i));
+				insert.setDouble(5, longitude(i));
+				insert.setString(6, i % 5 == 0 ? "https://example.com/images/" + i + ".jpg" : null);
+				insert.setLong(7, 1 + mix(i) % users);
+				insert.setInt(8, commentCounts[i]);
+				insert.setTimestamp(9, Timestamp.from(START.plus(i, ChronoUnit.SECONDS)));
+				insert.addBatch();
+				flushEvery(connection, insert, i + 1);
+			}
+			flush(connection, insert);
+		}
+	}
+
+	private void seedComments(Connection connection) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement(
+				"insert into comments (id, text, user_id, pin_id, created_at) values (?, ?, ?, ?, ?)")) {
+			for (long i = 0; i < comments; i++) {
+				insert.setLong(1, i + 1);
+				insert.setString(2, "comment " + i);
+				insert.setLong(3, 1 + mix(i * 31 + 7) % users);
+				insert.setLong(4, pinOfComment(i, pins) + 1);
+				insert.setTimestamp(5, Timestamp.from(START.plus(i, ChronoUnit.SECONDS)));
+				insert.addBatch();
+				flushEvery(connection, insert, i + 1);
+			}
+			flush(connection, insert);
+		}
+	}
+
+	static String username(int userId) {
+		return "load-user-" + userId;
+	}
+
+	// pins cluster around a few hundred "cities" so viewports and clusters see realistic density
+	static double latitude(int pin) {
+		int city = (int) (mix(pin) % 500);
+		return Math.max(-85, Math.min(85, -60 + (mix(city) % 12000) / 100.0 + ((mix(pin * 3L) % 2000) - 1000) / 1000.0));
+	}
+
+	static double longitude(int pin) {
+		int city = (int) (mix(pin) % 500);
+		return Math.max(-180, Math.min(180, -170 + (mix(city * 7L) % 34000) / 100.0 + ((mix(pin * 5L) % 2000) - 1000) / 1000.0));
+	}
+
+	// squaring a uniform value puts most comments on the lowest pin ids
+	static int pinOfComment(long comment, int pins) {
+		double uniform = (mix(comment) >>> 11) / (double) (1L << 53);
+		return (int) (pins * uniform * uniform);
+	}
+
+	// splitmix64 finalizer, a cheap stateless hash so every row can be generated independently
+	static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+	}
+
+	private static void flushEvery(Connection connection, PreparedStatement insert, long rows) throws SQLException {
+		if (rows % CHUNK == 0) {
+			flush(connection, insert);
+		}
+	}
+
+	private static void flush(Connection connection, PreparedStatement insert) throws SQLException {
+		insert.executeBatch();
+		connection.commit();
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Latencies per endpoint for one client thread. Each client records into its own instance and the
+// instances are merged after the run, so recording needs no locking
+final class LatencyRecorder {
+	private final Map<String, Samples> samples = new TreeMap<>();
+
+	private static final class Samples {
+		long[] nanos = new long[1024];
+		int size;
+		int errors;
+
+		void add(long value) {
+			if (size == nanos.length) {
+				nanos = Arrays.copyOf(nanos, size * 2);
+			}
+			nanos[size++] = value;
+		}
+	}
+
+	void record(String endpoint, long nanos, boolean ok) {
+		Samples endpointSamples = samples.computeIfAbsent(endpoint, key -> new Samples());
+		endpointSamples.add(nanos);
+		if (!ok) {
+			endpointSamples.errors++;
+		}
+	}
+
+	void mergeInto(LatencyRecorder total) {
+		samples.forEach((endpoint, source) -> {
+			Samples target = total.samples.computeIfAbsent(endpoint, key -> new Samples());
+			for (int i = 0; i < source.size; i++) {
+				target.add(source.nanos[i]);
+			}
+			target.errors += source.errors;
+		});
+	}
+
+	// one row per endpoint: requests, errors, throughput and latency percentiles in milliseconds
+	Map<String, Map<String, Number>> summarize(double seconds) {
+		Map<String, Map<String, Number>> rows = new LinkedHashMap<>();
+		samples.forEach((endpoint, endpointSamples) -> {
+			long[] sorted = Arrays.copyOf(endpointSamples.nanos, endpointSamples.size);
+			Arrays.sort(sorted);
+			Map<String, Number> row = new LinkedHashMap<>();
+			row.put("requests", sorted.length);
+			row.put("errors", endpointSamples.errors);
+			row.put("throughput", sorted.length / seconds);
+			row.put("p50", percentile(sorted, 0.50));
+			row.put("p99", percentile(sorted, 0.99));
+			row.put("p999", percentile(sorted, 0.999));
+			row.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+			rows.put(endpoint, row);
+		});
+		return rows;
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+	}
+}
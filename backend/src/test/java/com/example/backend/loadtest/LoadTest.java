@@ -0,0 +1,197 @@
+package com.example.backend.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.backend.BackendApplication;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// End-to-end load test against the embedded H2 database, nothing external needed.
+// 1. a first application context creates the schema and DatasetSeeder bulk-loads the synthetic dataset
+// 2. a second context starts the real server on that database (so the in-memory indexes load the seeded pins)
+// 3. loadtest.clients closed-loop clients replay a map-app mix for loadtest.duration-seconds after a warmup:
+//    viewport and cluster loads, pin popups (pin + first comment page), paging, comment posts, new pins and logins
+// Throughput and p50/p99/p999 per endpoint are printed and written to target/loadtest-report.json.
+//
+// mvn -Pbenchmark test -Dtest=LoadTest -Dloadtest.pins=1000000 -Dloadtest.comments=10000000 -Dbenchmark.jvm-args=-Xmx12g
+// A file database keeps the seeded data between runs: -Dloadtest.db-url=jdbc:h2:file:./target/loadtest/db
+@Tag("benchmark")
+class LoadTest {
+	private static final int USERS = Integer.getInteger("loadtest.users", 1000);
+	private static final int PINS = Integer.getInteger("loadtest.pins", 100_000);
+	private static final long COMMENTS = Long.getLong("loadtest.comments", 1_000_000L);
+	private static final int CLIENTS = Integer.getInteger("loadtest.clients", 64);
+	private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+	private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 60);
+	private static final long SEED = Long.getLong("loadtest.seed", 42L);
+	private static final String DB_URL = System.getProperty("loadtest.db-url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+
+	private HttpClient client;
+	private String baseUrl;
+
+	@Test
+	void replayMapWorkload() throws Exception {
+		seedIfNeeded();
+		try (ConfigurableApplicationContext context = application(WebApplicationType.SERVLET, "none",
+				"server.port=0", "spring.jpa.properties.hibernate.generate_statistics=false")) {
+			baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			client = HttpClient.newBuilder()
+					.executor(Executors.newVirtualThreadPerTaskExecutor())
+					.connectTimeout(Duration.ofSeconds(10))
+					.build();
+
+			drive(WARMUP_SECONDS, 0);
+			long start = System.nanoTime();
+			LatencyRecorder total = drive(DURATION_SECONDS, 1);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			report(total.summarize(seconds), seconds);
+		}
+	}
+
+	private void seedIfNeeded() throws Exception {
+		try (ConfigurableApplicationContext context = application(WebApplicationType.NONE, "update")) {
+			Long existing = context.getBean(JdbcTemplate.class).queryForObject("select count(*) from pins", Long.class);
+			if (existing != null && existing > 0) {
+				System.out.printf("using the %d pins already in %s%n", existing, DB_URL);
+				return;
+			}
+			long start = System.nanoTime();
+			new DatasetSeeder(context.getBean(DataSource.class), USERS, PINS, COMMENTS).seed();
+			System.out.printf("seeded %d users, %d pins, %d comments in %.1fs%n", USERS, PINS, COMMENTS,
+					(System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	private static ConfigurableApplicationContext application(WebApplicationType type, String ddlAuto, String... properties) {
+		// passed as command line arguments so they win over the test application.properties
+		List<String> args = new ArrayList<>(List.of(
+				"--spring.datasource.url=" + DB_URL,
+				"--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+				"--logging.level.root=WARN"));
+		for (String property : properties) {
+			args.add("--" + property);
+		}
+		return new SpringApplicationBuilder(BackendApplication.class)
+				.web(type)
+				.run(args.toArray(String[]::new));
+	}
+
+	private LatencyRecorder drive(int seconds, long round) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		List<LatencyRecorder> recorders = new ArrayList<>();
+		ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+		for (int c = 0; c < CLIENTS; c++) {
+			LatencyRecorder recorder = new LatencyRecorder();
+			recorders.add(recorder);
+			Random random = new Random(SEED * 1_000_003 + round * 10_007 + c);
+			clients.execute(() -> {
+				while (System.nanoTime() < deadline) {
+					step(random, recorder);
+				}
+			});
+		}
+		clients.shutdown();
+		clients.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+
+		LatencyRecorder total = new LatencyRecorder();
+		recorders.forEach(recorder -> recorder.mergeInto(total));
+		return total;
+	}
+
+	// one user action, weighted roughly like a map app: mostly looking around, a little writing
+	private void step(Random random, LatencyRecorder recorder) {
+		int roll = random.nextInt(100);
+		int pin = DatasetSeeder.pinOfComment(random.nextLong() & Long.MAX_VALUE, PINS);
+		double latitude = DatasetSeeder.latitude(pin);
+		double longitude = DatasetSeeder.longitude(pin);
+		if (roll < 30) {
+			double half = 0.25 + random.nextDouble() * 2;
+			get(recorder, "GET /pins?bbox", String.format("/pins?minLat=%.4f&minLon=%.4f&maxLat=%.4f&maxLon=%.4f",
+					Math.max(-90, latitude - half), Math.max(-180, longitude - half),
+					Math.min(90, latitude + half), Math.min(180, longitude + half)));
+		} else if (roll < 45) {
+			int zoom = 2 + random.nextInt(10);
+			double half = 180.0 / (1 << zoom);
+			get(recorder, "GET /pins/clusters", String.format("/pins/clusters?zoom=%d&bbox=%.4f,%.4f,%.4f,%.4f", zoom,
+					Math.max(-180, longitude - 2 * half), Math.max(-85, latitude - half),
+					Math.min(180, longitude + 2 * half), Math.min(85, latitude + half)));
+		} else if (roll < 75) {
+			get(recorder, "GET /pins/{id}", "/pins/" + (pin + 1));
+			get(recorder, "GET /comments/pins/{id}?limit", "/comments/pins/" + (pin + 1) + "?limit=20");
+		} else if (roll < 85) {
+			get(recorder, "GET /pins?limit", "/pins?limit=100&after=" + random.nextInt(PINS));
+		} else if (roll < 93) {
+			post(recorder, "POST /comments/add", "/comments/add", String.format(
+					"{\"text\":\"load comment\",\"userId\":%d,\"pinId\":%d}", 1 + random.nextInt(USERS), pin + 1));
+		} else if (roll < 95) {
+			post(recorder, "POST /pins/create", "/pins/create", String.format(
+					"{\"title\":\"load pin\",\"description\":\"new\",\"latitude\":%.5f,\"longitude\":%.5f,\"userId\":%d}",
+					latitude, longitude, 1 + random.nextInt(USERS)));
+		} else {
+			post(recorder, "POST /users/login", "/users/login", String.format("{\"usernameOrEmail\":\"%s\",\"password\":\"%s\"}",
+					DatasetSeeder.username(1 + random.nextInt(USERS)), DatasetSeeder.PASSWORD));
+		}
+	}
+
+	private void get(LatencyRecorder recorder, String endpoint, String path) {
+		send(recorder, endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+	}
+
+	private void post(LatencyRecorder recorder, String endpoint, String path, String json) {
+		send(recorder, endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build());
+	}
+
+	private void send(LatencyRecorder recorder, String endpoint, HttpRequest request) {
+		long start = System.nanoTime();
+		boolean ok;
+		try {
+			ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+		} catch (Exception e) {
+			ok = false;
+		}
+		recorder.record(endpoint, System.nanoTime() - start, ok);
+	}
+
+	private static void report(Map<String, Map<String, Number>> rows, double seconds) {
+		System.out.printf("%-32s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+		rows.forEach((endpoint, row) -> System.out.printf("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", endpoint,
+				row.get("requests").intValue(), row.get("errors").intValue(), row.get("throughput").doubleValue(),
+				row.get("p50").doubleValue(), row.get("p99").doubleValue(), row.get("p999").doubleValue()));
+
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("users", USERS);
+		document.put("pins", PINS);
+		document.put("comments", COMMENTS);
+		document.put("clients", CLIENTS);
+		document.put("seconds", seconds);
+		document.put("endpoints", rows);
+		File file = new File("target/loadtest-report.json");
+		JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(file, document);
+		System.out.println("report written to " + file.getAbsolutePath());
+	}
+}
@@ -0,0 +1,139 @@
+package com.example.backend.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.servlet.http.Cookie;
+
+// Two in-memory H2 databases stand in for the primary and a replica. Replication is a SCRIPT/RUNSCRIPT copy made by
+// the test, so the replica is behind until replicate() is called and every read can be told apart by its result
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+		"datasource.replicas.urls=" + ReplicaRoutingTests.REPLICA_URL})
+@DirtiesContext
+class ReplicaRoutingTests {
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private ReadYourWritesFilter readYourWritesFilter;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		// security is left out because /users is not public; the routing filter is added explicitly
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(readYourWritesFilter).build();
+		replicate();
+	}
+
+	@Test
+	void readsGoToTheReplicaUnlessTheClientJustWrote() throws Exception {
+		String username = "routing-" + System.nanoTime();
+		long userId = insertUserOnPrimary(username);
+
+		assertThat(users(null)).doesNotContain(username);
+		assertThat(users(new Cookie(ReadYourWritesFilter.PRIMARY_COOKIE, "1"))).contains(username);
+
+		replicate();
+		assertThat(users(null)).contains(username);
+
+		// the write and the reads that validate it go to the primary, and the client gets the sticky cookie
+		String other = "routing-other-" + System.nanoTime();
+		long otherId = insertUserOnPrimary(other);
+		mockMvc.perform(post("/pins/create").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"routed\",\"latitude\":1,\"longitude\":2,\"userId\":" + otherId + "}"))
+				.andExpect(status().isOk())
+				.andExpect(cookie().exists(ReadYourWritesFilter.PRIMARY_COOKIE));
+		assertThat(count(PRIMARY_URL, "select count(*) from pins where user_id = " + otherId)).isEqualTo(1);
+		assertThat(count(REPLICA_URL, "select count(*) from pins where user_id = " + otherId)).isZero();
+		assertThat(userId).isNotEqualTo(otherId);
+
+		// only that client is sticky: other clients' plain reads still go to the replica after the write
+		assertThat(users(null)).doesNotContain(other);
+	}
+
+	@Test
+	void cacheAndSnapshotRefillsReadThePrimary() throws Exception {
+		String username = "routing-refill-" + System.nanoTime();
+		long userId = insertUserOnPrimary(username);
+		String created = mockMvc.perform(post("/pins/create").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"" + username + "\",\"latitude\":1,\"longitude\":2,\"userId\":" + userId + "}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		long pinId = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+		// no cookie and the replica does not have the pin yet, so these only succeed when they are filled from the primary
+		assertThat(mockMvc.perform(get("/pins/" + pinId)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString()).contains(username);
+		mockMvc.perform(get("/comments/pins/" + pinId)).andExpect(status().isOk());
+		assertThat(mockMvc.perform(get("/pins")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString()).contains(username);
+		assertThat(count(REPLICA_URL, "select count(*) from pins where user_id = " + userId)).isZero();
+	}
+
+	private String users(Cookie cookie) throws Exception {
+		var request = get("/users?size=200");
+		if (cookie != null) {
+			request.cookie(cookie);
+		}
+		return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+	}
+
+	private static long insertUserOnPrimary(String username) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+			 Statement statement = connection.createStatement()) {
+			statement.executeUpdate("insert into users (username, email, password) values ('" + username + "', '"
+					+ username + "@example.com', 'secret')", Statement.RETURN_GENERATED_KEYS);
+			try (var keys = statement.getGeneratedKeys()) {
+				keys.next();
+				return keys.getLong(1);
+			}
+		}
+	}
+
+	private static long count(String url, String sql) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 Statement statement = connection.createStatement();
+			 var result = statement.executeQuery(sql)) {
+			result.next();
+			return result.getLong(1);
+		}
+	}
+
+	private static void replicate() throws SQLException {
+		String script = "target/routing-replica.sql";
+		try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+			 Statement statement = primary.createStatement()) {
+			statement.execute("script to '" + script + "'");
+		}
+		try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+			 Statement statement = replica.createStatement()) {
+			statement.execute("drop all objects");
+			statement.execute("runscript from '" + script + "'");
+		}
+	}
+}
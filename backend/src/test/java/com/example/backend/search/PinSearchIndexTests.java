@@ -0,0 +1,112 @@
+package com.example.backend.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+class PinSearchIndexTests {
+
+	private final PinSearchIndex index = new PinSearchIndex();
+
+	@Test
+	void everyWordMustMatchAndTitleHitsRankFirst() {
+		index.pinSaved(pin(1L, "Levee breach", "water over the road", 14.6, 121.0));
+		index.pinSaved(pin(2L, "Flooded road", "near the levee", 14.5, 121.0));
+		index.pinSaved(pin(3L, "Road closed", "fallen tree", 14.4, 121.0));
+
+		assertThat(index.search("levee", 10)).extracting(PinResponseDTO::getId).containsExactly(1L, 2L);
+		assertThat(index.search("flooded road", 10)).extracting(PinResponseDTO::getId).containsExactly(2L);
+		assertThat(index.search("LEVEE road", 10)).extracting(PinResponseDTO::getId).containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void wordsMatchAsPrefixesAndAccentsAreFolded() {
+		index.pinSaved(pin(1L, "Flood at Paranaque", null, 14.5, 121.0));
+		index.pinSaved(pin(2L, "Flooded underpass", null, 14.5, 121.0));
+		index.pinSaved(pin(3L, "Café", "Parañaque", 14.5, 121.0));
+
+		// the exact word outranks a longer word it is a prefix of
+		assertThat(index.search("flood", 10)).extracting(PinResponseDTO::getId).containsExactly(1L, 2L);
+		assertThat(index.search("parañ", 10)).extracting(PinResponseDTO::getId).containsExactlyInAnyOrder(1L, 3L);
+		assertThat(index.search("cafe", 10)).extracting(PinResponseDTO::getId).containsExactly(3L);
+	}
+
+	@Test
+	void updatesAndDeletesAreVisibleImmediately() {
+		index.pinSaved(pin(1L, "Levee breach", null, 14.6, 121.0));
+		index.pinSaved(pin(1L, "Levee repaired", null, 14.6, 121.0));
+		assertThat(index.search("breach", 10)).isEmpty();
+		assertThat(index.search("repaired", 10)).hasSize(1);
+
+		index.pinDeleted(pin(1L, "Levee repaired", null, 14.6, 121.0));
+		assertThat(index.search("levee", 10)).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	@Test
+	void searchResultsCarryTheCurrentCommentCount() {
+		PinResponseDTO published = pin(1L, "Levee breach", null, 14.6, 121.0);
+		index.pinSaved(published);
+
+		index.commentCountChanged(1L, 1);
+		assertThat(index.search("levee", 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(1);
+		assertThat(index.search("levee", 14, 120, 15, 122, 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(1);
+
+		index.commentCountChanged(1L, -1);
+		assertThat(index.searchAmong("levee", List.of(published), 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(0);
+		assertThat(published.getCommentCount()).isZero();
+	}
+
+	@Test
+	void survivesCompactionAfterManyUpdates() {
+		for (int round = 0; round < 3; round++) {
+			for (long id = 0; id < 1000; id++) {
+				index.pinSaved(pin(id, "report " + round + " pin" + id, null, 0, 0));
+			}
+		}
+		assertThat(index.search("pin999", 10)).extracting(PinResponseDTO::getTitle).containsExactly("report 2 pin999");
+		assertThat(index.search("report 1", 10)).isEmpty();
+		assertThat(index.search("report", 5000)).hasSize(1000);
+	}
+
+	@Test
+	void boxAndLimitApply() {
+		index.pinSaved(pin(1L, "levee", null, 14.6, 121.0));
+		index.pinSaved(pin(2L, "levee", null, 48.8, 2.3));
+		index.pinSaved(pin(3L, "levee", null, 14.5, 121.1));
+		index.pinSaved(pin(4L, "levee", null, -17.7, 178.4));
+
+		assertThat(index.search("levee", 10.0, 120.0, 20.0, 122.0, 10))
+				.extracting(PinResponseDTO::getId).containsExactly(3L, 1L);
+		assertThat(index.search("levee", -20.0, 170.0, 20.0, -170.0, 10))
+				.extracting(PinResponseDTO::getId).containsExactly(4L);
+		assertThat(index.search("levee", 1)).extracting(PinResponseDTO::getId).containsExactly(4L);
+	}
+
+	@Test
+	void rankingGivenPinsMatchesRankingFromPostings() {
+		index.pinSaved(pin(1L, "Flooded road", "levee near the road", 14.6, 121.0));
+		index.pinSaved(pin(2L, "Road", "flood warning", 14.5, 121.1));
+		index.pinSaved(pin(3L, "Levee", "flooding on the road", 14.4, 121.2));
+		index.pinSaved(pin(4L, "Levee", "dry", 14.3, 121.3));
+
+		assertThat(index.searchAmong("road flood", List.of(pin(1L, null, null, 0, 0), pin(2L, null, null, 0, 0),
+				pin(3L, null, null, 0, 0), pin(4L, null, null, 0, 0)), 10))
+				.containsExactlyElementsOf(index.search("road flood", 10));
+		assertThat(index.estimateMatches("road flood")).isEqualTo(3);
+	}
+
+	@Test
+	void rejectsQueriesWithoutWords() {
+		assertThatThrownBy(() -> index.search(" ,.; ", 10)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static PinResponseDTO pin(Long id, String title, String description, double latitude, double longitude) {
+		return new PinResponseDTO(id, title, description, latitude, longitude, null, 7L, "tester", null, 0);
+	}
+}
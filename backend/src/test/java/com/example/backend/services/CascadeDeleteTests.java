@@ -0,0 +1,131 @@
+package com.example.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.repositories.UserRepository;
+import com.example.backend.search.PinSearchIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Deleting a pin or a user runs a fixed number of statements however many comments hang off it,
+// and leaves the comment counts, caches and in-memory indexes of the remaining pins right
+@SpringBootTest
+class CascadeDeleteTests {
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinRepository pinRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private PinSearchIndex searchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private int userCount;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@Test
+	void pinDeleteStatementCountDoesNotGrowWithComments() {
+		User commenter = newUser();
+		PinResponseDTO few = newPin(newUser(), "few comments");
+		PinResponseDTO many = newPin(newUser(), "many comments");
+		addComments(few, commenter, 2);
+		addComments(many, commenter, 40);
+
+		long fewStatements = statementsToDelete(few);
+		long manyStatements = statementsToDelete(many);
+
+		assertThat(manyStatements).isEqualTo(fewStatements);
+		assertThat(pinRepository.existsById(many.getId())).isFalse();
+		assertThat(commentRepository.findDTOsByPinId(many.getId())).isEmpty();
+	}
+
+	@Test
+	void userDeleteRemovesTheirPinsAndCommentsEverywhere() {
+		User leaving = newUser();
+		User staying = newUser();
+		PinResponseDTO leavingPin = newPin(leaving, "zanzibarleaving");
+		PinResponseDTO stayingPin = newPin(staying, "zanzibarstaying");
+		addComments(leavingPin, staying, 3);
+		addComments(stayingPin, leaving, 2);
+		addComments(stayingPin, staying, 1);
+		// cached with three comments before the delete
+		assertThat(pinService.getPinById(stayingPin.getId()).getCommentCount()).isEqualTo(3);
+
+		userService.deleteUser(leaving.getId());
+
+		assertThat(userRepository.existsById(leaving.getId())).isFalse();
+		assertThat(pinRepository.existsById(leavingPin.getId())).isFalse();
+		assertThat(commentRepository.findDTOsByPinId(leavingPin.getId())).isEmpty();
+		assertThat(commentRepository.findDTOsByPinId(stayingPin.getId())).hasSize(1);
+		assertThat(pinService.getPinById(stayingPin.getId()).getCommentCount()).isEqualTo(1);
+		assertThatThrownBy(() -> pinService.getPinById(leavingPin.getId())).isInstanceOf(RuntimeException.class);
+		assertThat(searchIndex.search("zanzibarleaving", 10)).isEmpty();
+		assertThat(searchIndex.search("zanzibarstaying", 10)).extracting(PinResponseDTO::getId).containsExactly(stayingPin.getId());
+	}
+
+	private long statementsToDelete(PinResponseDTO pin) {
+		statistics.clear();
+		pinService.deletePin(pin.getId());
+		return statistics.getPrepareStatementCount();
+	}
+
+	private PinResponseDTO newPin(User user, String title) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle(title);
+		dto.setLatitude(10);
+		dto.setLongitude(20);
+		dto.setUserId(user.getId());
+		return pinService.createPin(dto);
+	}
+
+	private void addComments(PinResponseDTO pin, User user, int count) {
+		for (int i = 0; i < count; i++) {
+			commentService.addComment("comment " + i, user.getId(), pin.getId());
+		}
+	}
+
+	private User newUser() {
+		userCount++;
+		User user = new User();
+		user.setUsername("cascade-delete-" + userCount + "-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
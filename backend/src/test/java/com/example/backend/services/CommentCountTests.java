@@ -0,0 +1,85 @@
+package com.example.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.PinRepository;
+import com.example.backend.repositories.UserRepository;
+
+// A pin's comment count as every read path reports it, after comments are added and deleted
+@SpringBootTest
+class CommentCountTests {
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PinRepository pinRepository;
+
+	@Test
+	void searchResultsFollowCommentsAddedAndDeleted() {
+		User user = newUser();
+		String title = "quarrysearchcount" + System.nanoTime();
+		PinResponseDTO pin = newPin(user, title);
+
+		CommentResponseDTO comment = commentService.addComment("first", user.getId(), pin.getId());
+		assertThat(pinService.searchPins(title, 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(1);
+		assertThat(pinService.searchPins(title, 9, 19, 11, 21, 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(1);
+
+		commentService.deleteComment(comment.getId());
+		assertThat(pinService.searchPins(title, 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(0);
+	}
+
+	@Test
+	void storedCountNeverGoesNegativeAndIsRecountedAtStartup() {
+		User user = newUser();
+		String title = "quarryrecount" + System.nanoTime();
+		PinResponseDTO pin = newPin(user, title);
+		CommentResponseDTO first = commentService.addComment("first", user.getId(), pin.getId());
+		commentService.addComment("second", user.getId(), pin.getId());
+		// drifted to 0 like a count column added to existing rows
+		pinRepository.adjustCommentCount(pin.getId(), -5);
+		assertThat(storedCount(pin)).isZero();
+
+		commentService.deleteComment(first.getId());
+		assertThat(storedCount(pin)).isZero();
+
+		pinService.loadListeners();
+		assertThat(storedCount(pin)).isEqualTo(1);
+		assertThat(pinService.searchPins(title, 10)).extracting(PinResponseDTO::getCommentCount).containsExactly(1);
+	}
+
+	private int storedCount(PinResponseDTO pin) {
+		return pinRepository.findDTOById(pin.getId()).orElseThrow().getCommentCount();
+	}
+
+	private PinResponseDTO newPin(User user, String title) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle(title);
+		dto.setLatitude(10);
+		dto.setLongitude(20);
+		dto.setUserId(user.getId());
+		return pinService.createPin(dto);
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("comment-count-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.backend.DTOs.CommentResponseDTO;
+import com.example.backend.DTOs.PinCreateDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.User;
+import com.example.backend.repositories.CommentRepository;
+import com.example.backend.repositories.UserRepository;
+
+// Queued comments are all written by the time stop() returns, with their pin's count and cache updated,
+// and nothing is accepted after that. The context is dirtied because the writer is stopped
+@SpringBootTest(properties = {"comments.write-behind.enabled=true", "comments.write-behind.flush-ms=20"})
+@DirtiesContext
+class CommentWriteBehindTests {
+
+	@Autowired
+	private CommentWriteBehind commentWriteBehind;
+
+	@Autowired
+	private PinService pinService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Test
+	void queuedCommentsAreWrittenBeforeStopReturns() {
+		User user = newUser();
+		PinResponseDTO pin = newPin(user);
+		// cached with no comments
+		assertThat(pinService.getPinById(pin.getId()).getCommentCount()).isZero();
+
+		for (int i = 0; i < 5; i++) {
+			CommentResponseDTO queued = commentWriteBehind.submit("comment " + i, user.getId(), pin.getId());
+			assertThat(queued.getId()).isNull();
+			assertThat(queued.getUsername()).isEqualTo(user.getUsername());
+		}
+		commentWriteBehind.stop();
+
+		assertThat(commentRepository.findDTOsByPinId(pin.getId())).hasSize(5).allSatisfy(comment -> assertThat(comment.getId()).isNotNull());
+		assertThat(pinService.getPinById(pin.getId()).getCommentCount()).isEqualTo(5);
+		assertThatThrownBy(() -> commentWriteBehind.submit("too late", user.getId(), pin.getId()))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+	}
+
+	@Test
+	void unknownPinOrUserIsRejectedOnSubmit() {
+		User user = newUser();
+		PinResponseDTO pin = newPin(user);
+
+		assertThatThrownBy(() -> commentWriteBehind.submit("hi", user.getId(), -1L)).hasMessageContaining("Pin not found");
+		assertThatThrownBy(() -> commentWriteBehind.submit("hi", -1L, pin.getId())).hasMessageContaining("User not found");
+	}
+
+	private PinResponseDTO newPin(User user) {
+		PinCreateDTO dto = new PinCreateDTO();
+		dto.setTitle("busy pin");
+		dto.setUserId(user.getId());
+		return pinService.createPin(dto);
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setUsername("write-behind-" + System.nanoTime());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,146 @@
+package com.example.backend.spatial;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.DTOs.PinNearbyDTO;
+import com.example.backend.DTOs.PinResponseDTO;
+import com.example.backend.models.Pin;
+import com.example.backend.models.User;
+
+class PinSpatialIndexTests {
+
+	private final PinSpatialIndex index = new PinSpatialIndex(1.0);
+
+	@Test
+	void returnsOnlyPinsInsideViewport() {
+		index.put(pin(1L, 14.60, 120.98));
+		index.put(pin(2L, 14.55, 121.03));
+		index.put(pin(3L, 10.31, 123.89));
+
+		assertThat(index.query(14.0, 120.0, 15.0, 122.0))
+				.extracting(PinResponseDTO::getId)
+				.containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void viewportCrossingAntimeridianCoversBothSides() {
+		index.put(pin(1L, -17.7, 178.4));
+		index.put(pin(2L, -14.3, -170.7));
+		index.put(pin(3L, -17.5, -149.5));
+
+		assertThat(index.query(-20.0, 170.0, -10.0, -165.0))
+				.extracting(PinResponseDTO::getId)
+				.containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void putMovesExistingPinAndRemoveDropsIt() {
+		index.put(pin(1L, 14.60, 120.98));
+		index.put(pin(1L, 48.85, 2.35));
+
+		assertThat(index.query(14.0, 120.0, 15.0, 122.0)).isEmpty();
+		assertThat(index.query(48.0, 2.0, 49.0, 3.0)).hasSize(1);
+
+		index.remove(1L);
+		assertThat(index.query(-90, -180, 90, 180)).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	@Test
+	void commentCountChangeReplacesThePinInsteadOfMutatingIt() {
+		PinResponseDTO published = pin(1L, 14.60, 120.98);
+		index.put(published);
+
+		index.commentCountChanged(1L, 2);
+
+		assertThat(published.getCommentCount()).isZero();
+		assertThat(index.get(1L).getCommentCount()).isEqualTo(2);
+		assertThat(index.query(14.0, 120.0, 15.0, 122.0))
+				.extracting(PinResponseDTO::getCommentCount)
+				.containsExactly(2);
+	}
+
+	@Test
+	void rejectsInvertedLatitudeRange() {
+		assertThatThrownBy(() -> index.query(10, 0, 5, 10))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void nearestFindsPinsAcrossTheAntimeridianAndThePole() {
+		index.put(pin(1L, -17.7, 179.9));
+		index.put(pin(2L, -17.7, -179.8));
+		index.put(pin(3L, -17.7, 175.0));
+		index.put(pin(4L, 89.9, 0.0));
+		index.put(pin(5L, 89.9, 179.0));
+		index.put(pin(6L, 80.0, 0.0));
+
+		assertThat(index.nearest(-17.7, -179.95, 2, Double.POSITIVE_INFINITY))
+				.extracting(nearby -> nearby.getPin().getId()).containsExactly(2L, 1L);
+		// 5 is next door, 4 is just across the pole (about 22 km) and 6, on 4's meridian, is 1100 km away
+		assertThat(index.nearest(89.9, 180.0, 2, Double.POSITIVE_INFINITY))
+				.extracting(nearby -> nearby.getPin().getId()).containsExactly(5L, 4L);
+	}
+
+	@Test
+	void nearestReturnsDistancesAndRespectsMaxKm() {
+		index.put(pin(1L, 14.5995, 120.9842));
+		index.put(pin(2L, 10.3157, 123.8854));
+
+		List<PinNearbyDTO> nearby = index.nearest(14.5995, 120.9842, 5, 100);
+
+		assertThat(nearby).extracting(result -> result.getPin().getId()).containsExactly(1L);
+		assertThat(nearby.get(0).getDistanceKm()).isZero();
+		// Manila to Cebu is about 570 km
+		assertThat(index.nearest(14.5995, 120.9842, 5, 1000).get(1).getDistanceKm()).isBetween(560.0, 580.0);
+	}
+
+	@Test
+	void nearestMatchesBruteForceEverywhere() {
+		PinSpatialIndex fine = new PinSpatialIndex(0.5);
+		Random random = new Random(7);
+		List<PinResponseDTO> pins = new ArrayList<>();
+		for (long id = 0; id < 2000; id++) {
+			// crowd the poles and the antimeridian
+			double latitude = id % 4 == 0 ? 88 + random.nextDouble() * 2 : random.nextDouble(-90, 90);
+			double longitude = id % 4 == 1 ? 179 + random.nextDouble() : random.nextDouble(-180, 180);
+			PinResponseDTO pin = pin(id, latitude, longitude);
+			pins.add(pin);
+			fine.put(pin);
+		}
+
+		for (int query = 0; query < 200; query++) {
+			double latitude = query % 3 == 0 ? 89.5 : random.nextDouble(-90, 90);
+			double longitude = query % 3 == 1 ? -179.9 : random.nextDouble(-180, 180);
+			List<Long> expected = pins.stream()
+					.sorted(Comparator.comparingDouble(pin -> GreatCircle.distanceKm(latitude, longitude, pin.getLatitude(), pin.getLongitude())))
+					.limit(10)
+					.map(PinResponseDTO::getId)
+					.toList();
+
+			assertThat(fine.nearest(latitude, longitude, 10, Double.POSITIVE_INFINITY))
+					.extracting(nearby -> nearby.getPin().getId())
+					.containsExactlyElementsOf(expected);
+		}
+	}
+
+	private static PinResponseDTO pin(Long id, double latitude, double longitude) {
+		User user = new User();
+		user.setId(7L);
+		user.setUsername("tester");
+		Pin pin = new Pin();
+		pin.setId(id);
+		pin.setLatitude(latitude);
+		pin.setLongitude(longitude);
+		pin.setUser(user);
+		return new PinResponseDTO(pin);
+	}
+}
@@ -0,0 +1,26 @@
+package com.example.backend.telemetry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlFingerprintTests {
+
+	@Test
+	void literalsAndWhitespaceDoNotChangeTheFingerprint() {
+		String a = SqlFingerprint.normalize("SELECT p1_0.pin_id FROM pins p1_0 WHERE p1_0.title = 'Lake'  AND p1_0.comment_count > 5");
+		String b = SqlFingerprint.normalize("select p1_0.pin_id from pins p1_0\n where p1_0.title='it''s' and p1_0.comment_count > 12.5");
+
+		assertThat(a).isEqualTo("select p1_0.pin_id from pins p1_0 where p1_0.title = ? and p1_0.comment_count > ?");
+		assertThat(b).isEqualTo("select p1_0.pin_id from pins p1_0 where p1_0.title=? and p1_0.comment_count > ?");
+		assertThat(SqlFingerprint.id(a)).hasSize(8);
+	}
+
+	@Test
+	void inListsAndMultiRowInsertsCollapse() {
+		assertThat(SqlFingerprint.normalize("delete from comments where pin_id in (?, ?, ?)"))
+				.isEqualTo(SqlFingerprint.normalize("delete from comments where pin_id in (?)"));
+		assertThat(SqlFingerprint.normalize("insert into pins (a, b) values (?, ?), (?, ?), (?, ?)"))
+				.isEqualTo("insert into pins (a, b) values (?)");
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.backend.wire;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.DTOs.PinResponseDTO;
+
+class PinColumnarCodecTests {
+
+	@Test
+	void roundTripsEveryField() {
+		List<PinResponseDTO> pins = List.of(
+				new PinResponseDTO(42L, "Manila", "bay walk", 14.5995124, 120.9842195, "https://img/1.jpg", 7L, "ana",
+						Instant.parse("2026-01-02T03:04:05.678Z"), 3),
+				new PinResponseDTO(17L, "Cebu", null, -10.3156992, -123.8854366, null, 9L, "ben", null, 0),
+				new PinResponseDTO(43L, "Ünïcode ✓", "", 89.9999999, -180.0, "", 7L, "ana",
+						Instant.parse("2025-12-31T23:59:59Z"), 120));
+
+		List<PinResponseDTO> decoded = PinColumnarCodec.decode(PinColumnarCodec.encode(pins));
+
+		assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(pins);
+	}
+
+	@Test
+	void writesEachUsernameOnce() {
+		List<PinResponseDTO> pins = List.of(
+				new PinResponseDTO(1L, "a", null, 0, 0, null, 7L, "a-rather-long-username", null, 0),
+				new PinResponseDTO(2L, "b", null, 0, 0, null, 7L, "a-rather-long-username", null, 0));
+
+		String encoded = new String(PinColumnarCodec.encode(pins), StandardCharsets.ISO_8859_1);
+
+		assertThat(encoded.indexOf("a-rather-long-username")).isEqualTo(encoded.lastIndexOf("a-rather-long-username"));
+	}
+
+	@Test
+	void rejectsTruncatedInput() {
+		byte[] encoded = PinColumnarCodec.encode(List.of(
+				new PinResponseDTO(1L, "a", null, 1, 2, null, 7L, "ana", null, 0)));
+
+		assertThatThrownBy(() -> PinColumnarCodec.decode(Arrays.copyOf(encoded, encoded.length - 2)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
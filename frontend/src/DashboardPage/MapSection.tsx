@@ -11,7 +11,18 @@ import { MapPin, MessageCircle } from "lucide-react";
 import { Button } from "@/components/ui/button";
 import type { Pin, User } from './types';
 
+const API_BASE = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080';
 
+// uploaded images come with a small thumbnail served by the backend; external links are used as they are
+const popupImage = (pin: Pin) => {
+    if (pin.thumbnailUrl) {
+        return `${API_BASE}${pin.thumbnailUrl}`;
+    }
+    if (pin.imageUrl?.startsWith('/')) {
+        return `${API_BASE}${pin.imageUrl}`;
+    }
+    return pin.imageUrl || 'https://via.placeholder.com/150';
+};
 
 interface MapSectionProps {
     pins: Pin[];
@@ -65,7 +76,7 @@ export function MapSection({
                     <MarkerPopup className="w-72 max-h-[60vh] overflow-hidden p-0">
                         <div className="relative h-32 overflow-hidden rounded-t-md">
                             <img
-                                src={pin.imageUrl || 'https://via.placeholder.com/150'}
+                                src={popupImage(pin)}
                                 alt={pin.title}
                                 className="object-cover w-full h-full"
                             />
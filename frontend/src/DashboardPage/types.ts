@@ -15,6 +15,7 @@ export interface Pin {
     latitude: number;
     longitude: number;
     imageUrl?: string;
+    thumbnailUrl?: string;
     username?: string;
     createdAt?: string;
 }
@@ -4,7 +4,7 @@ import type { Comment } from './types';
 const API_BASE = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080';
 
 const fetchComments = async (pinId: number): Promise<Comment[]> => {
-    const response = await fetch(`${API_BASE}/comments/pins/${pinId}`);
+    const response = await fetch(`${API_BASE}/comments/pins/${pinId}`, { credentials: 'include' });
     if (!response.ok) {
         throw new Error('Failed to fetch comments');
     }
@@ -23,6 +23,7 @@ export const useCommentsAPI = (selectedPinId: number | undefined, enabled: boole
     const createCommentMutation = useMutation({
         mutationFn: async ({ userId, pinId, text }: { userId: number; pinId: number; text: string }) => {
             const response = await fetch(`${API_BASE}/comments/add`, {
+                credentials: 'include',
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
@@ -46,6 +47,7 @@ export const useCommentsAPI = (selectedPinId: number | undefined, enabled: boole
     const deleteCommentMutation = useMutation({
         mutationFn: async ({ commentId }: { commentId: number; pinId: number }) => {
             const response = await fetch(`${API_BASE}/comments/${commentId}`, {
+                credentials: 'include',
                 method: 'DELETE',
             });
             if (!response.ok) {
@@ -4,7 +4,7 @@ import type { Pin } from './types';
 const API_BASE = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080';
 
 export const fetchPins = async (): Promise<Pin[]> => {
-    const response = await fetch(`${API_BASE}/pins`);
+    const response = await fetch(`${API_BASE}/pins`, { credentials: 'include' });
     if (!response.ok) {
         throw new Error('Failed to fetch pins');
     }
@@ -22,6 +22,7 @@ export const usePinsAPI = () => {
     const createPinMutation = useMutation({
         mutationFn: async (newPin: Pin) => {
             const response = await fetch(`${API_BASE}/pins/create`, {
+                credentials: 'include',
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
@@ -41,6 +42,7 @@ export const usePinsAPI = () => {
     const editPinMutation = useMutation({
         mutationFn: async ({ pinId, title, description, imageUrl }: { pinId: number; title: string; description: string; imageUrl?: string }) => {
             const response = await fetch(`${API_BASE}/pins/${pinId}`, {
+                credentials: 'include',
                 method: 'PUT',
                 headers: {
                     'Content-Type': 'application/json',
@@ -64,6 +66,7 @@ export const usePinsAPI = () => {
     const deletePinMutation = useMutation({
         mutationFn: async (pinId: number) => {
             const response = await fetch(`${API_BASE}/pins/${pinId}`, {
+                credentials: 'include',
                 method: 'DELETE',
             });
             if (!response.ok) {